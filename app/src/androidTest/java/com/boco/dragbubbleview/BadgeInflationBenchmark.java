@@ -0,0 +1,128 @@
+package com.boco.dragbubbleview;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 含 1、20、100 个气泡的布局创建耗时
+ * <p>
+ * 在主线程上创建气泡、加入容器并完成测量和布局，取多次的中位数输出到 logcat。
+ * 爆炸帧在后台解码，创建过程中不应同步解码。列表复用时反复 bind/unbind
+ * 同样输出耗时，并检查池中的绘制和动画资源不随绑定次数增长。
+ */
+@RunWith(AndroidJUnit4.class)
+public class BadgeInflationBenchmark {
+
+    private static final String TAG = "BadgeInflation";
+    private static final int WARM_UP = 3;
+    private static final int RUNS = 15;
+
+    @Test
+    public void inflate1() throws Exception {
+        measure(1);
+    }
+
+    @Test
+    public void inflate20() throws Exception {
+        measure(20);
+    }
+
+    @Test
+    public void inflate100() throws Exception {
+        measure(100);
+    }
+
+    @Test
+    public void rebind20() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final long[] times = new long[RUNS];
+        final int[] createCounts = new int[2];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                DragBubbleView[] badges = new DragBubbleView[20];
+                for (int i = 0; i < badges.length; i++) {
+                    badges[i] = new DragBubbleView(context);
+                    badges[i].measure(0, 0);
+                    badges[i].layout(0, 0, badges[i].getMeasuredWidth(),
+                            badges[i].getMeasuredHeight());
+                }
+                Canvas canvas = new Canvas(Bitmap.createBitmap(64, 64,
+                        Bitmap.Config.ARGB_8888));
+                for (int i = 0; i < WARM_UP; i++) {
+                    rebind(badges, canvas, i);
+                }
+                createCounts[0] = BubbleViewPool.getCanvasCreateCount();
+                for (int i = 0; i < RUNS; i++) {
+                    long start = System.nanoTime();
+                    rebind(badges, canvas, i);
+                    times[i] = System.nanoTime() - start;
+                }
+                createCounts[1] = BubbleViewPool.getCanvasCreateCount();
+            }
+        });
+        Arrays.sort(times);
+        Log.i(TAG, "rebind 20 badges: median " + times[RUNS / 2] / 1000 + "us, min "
+                + times[0] / 1000 + "us, max " + times[RUNS - 1] / 1000 + "us");
+        assertEquals("canvas adapters allocated after warm-up", createCounts[0],
+                createCounts[1]);
+    }
+
+    private static void rebind(DragBubbleView[] badges, Canvas canvas, int round) {
+        for (int i = 0; i < badges.length; i++) {
+            badges[i].bind(round * badges.length + i + 1);
+            badges[i].draw(canvas);
+            badges[i].unbind();
+        }
+    }
+
+    private void measure(final int badgeCount) {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final ExplosionFrameCache cache = ExplosionFrameCache.get(context);
+        final long[] times = new long[RUNS];
+        final int missCount = cache.getMissCount();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < WARM_UP; i++) {
+                    inflate(context, badgeCount);
+                }
+                for (int i = 0; i < RUNS; i++) {
+                    long start = System.nanoTime();
+                    inflate(context, badgeCount);
+                    times[i] = System.nanoTime() - start;
+                }
+            }
+        });
+        Arrays.sort(times);
+        Log.i(TAG, badgeCount + " badges: median " + times[RUNS / 2] / 1000 + "us, min "
+                + times[0] / 1000 + "us, max " + times[RUNS - 1] / 1000 + "us");
+        assertEquals("explosion frames decoded during inflation", missCount,
+                cache.getMissCount());
+    }
+
+    private static void inflate(Context context, int badgeCount) {
+        FrameLayout container = new FrameLayout(context);
+        for (int i = 0; i < badgeCount; i++) {
+            DragBubbleView badge = new DragBubbleView(context);
+            badge.setText(String.valueOf(i + 1));
+            container.addView(badge);
+        }
+        int spec = View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY);
+        container.measure(spec, spec);
+        container.layout(0, 0, 1080, 1080);
+    }
+}
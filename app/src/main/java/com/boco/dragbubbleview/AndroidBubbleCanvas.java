@@ -0,0 +1,119 @@
+package com.boco.dragbubbleview;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.os.Build;
+
+/**
+ * 把 {@link BubbleCanvas} 的调用转给 Android 的 Canvas
+ * <p>
+ * 画笔、路径和矩形都在创建时分配，之后每帧复用，可以通过 {@link BubbleViewPool} 在 View 之间复用。
+ */
+final class AndroidBubbleCanvas implements BubbleCanvas {
+
+    private final Paint mBubblePaint;
+    private Paint mTextPaint;
+    private final Path mPath = new Path();
+    private final RectF mRectF = new RectF();
+    private Canvas mCanvas;
+    private ExplosionRenderer mExplosionRenderer;
+
+    AndroidBubbleCanvas() {
+        mBubblePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mBubblePaint.setStyle(Paint.Style.FILL);
+    }
+
+    /**
+     * @param textPaint 气泡文本的画笔，由调用方维护颜色和字号
+     */
+    void setTextPaint(Paint textPaint) {
+        mTextPaint = textPaint;
+    }
+
+    /**
+     * 气泡、黏质小球和贝塞尔曲线是否抗锯齿，文本不受影响
+     */
+    void setAntiAlias(boolean antiAlias) {
+        mBubblePaint.setAntiAlias(antiAlias);
+    }
+
+    /**
+     * 设置本帧绘制的目标，绘制结束后应置为 null
+     */
+    void setCanvas(Canvas canvas) {
+        mCanvas = canvas;
+    }
+
+    /**
+     * 设置画爆炸效果的实现，爆炸位置在它 start 时确定
+     */
+    void setExplosionRenderer(ExplosionRenderer explosionRenderer) {
+        mExplosionRenderer = explosionRenderer;
+    }
+
+    @Override
+    public void drawCircle(float centerX, float centerY, float radius, int color) {
+        mBubblePaint.setColor(color);
+        mCanvas.drawCircle(centerX, centerY, radius, mBubblePaint);
+    }
+
+    @Override
+    public void drawRoundRect(float left, float top, float right, float bottom, float radius,
+                              int color) {
+        mBubblePaint.setColor(color);
+        mRectF.set(left, top, right, bottom);
+        mCanvas.drawRoundRect(mRectF, radius, radius, mBubblePaint);
+    }
+
+    @Override
+    public void moveTo(float x, float y) {
+        mPath.reset();
+        mPath.moveTo(x, y);
+    }
+
+    @Override
+    public void quadTo(float controlX, float controlY, float x, float y) {
+        mPath.quadTo(controlX, controlY, x, y);
+    }
+
+    @Override
+    public void lineTo(float x, float y) {
+        mPath.lineTo(x, y);
+    }
+
+    @Override
+    public void fillPath(int color) {
+        mPath.close();
+        mBubblePaint.setColor(color);
+        mCanvas.drawPath(mPath, mBubblePaint);
+    }
+
+    /**
+     * 硬件加速的 Canvas 在 API 29 之前不支持 drawVertices
+     */
+    @Override
+    public boolean supportsMesh() {
+        return !mCanvas.isHardwareAccelerated() || Build.VERSION.SDK_INT >= 29;
+    }
+
+    @Override
+    public void drawMesh(float[] vertices, int vertexCount, int color) {
+        mBubblePaint.setColor(color);
+        mCanvas.drawVertices(Canvas.VertexMode.TRIANGLES, vertexCount * 2, vertices, 0,
+                null, 0, null, 0, null, 0, 0, mBubblePaint);
+    }
+
+    @Override
+    public void drawText(String text, float x, float y) {
+        mCanvas.drawText(text, x, y, mTextPaint);
+    }
+
+    @Override
+    public void drawExplosion(float progress) {
+        if (mExplosionRenderer != null) {
+            mExplosionRenderer.draw(mCanvas, progress);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.boco.dragbubbleview;
+
+/**
+ * 黏质小球和拖拽气泡之间的贝塞尔"脖子"
+ * <p>
+ * 两条二阶贝塞尔曲线共用一个控制点，起点和终点是两圆上垂直于圆心连线的切点。
+ */
+final class BezierNeck {
+
+    /**
+     * 控制点坐标
+     */
+    private float mControlX;
+    private float mControlY;
+
+    private float mCircleStartX;
+    private float mCircleStartY;
+    private float mBubbleEndX;
+    private float mBubbleEndY;
+    private float mBubbleStartX;
+    private float mBubbleStartY;
+    private float mCircleEndX;
+    private float mCircleEndY;
+
+    /**
+     * 计算二阶贝塞尔曲线的起点，终点和控制点
+     *
+     * @param distance 两圆心间距，不能为 0
+     */
+    void calculate(float circleCenterX, float circleCenterY, float circleRadius,
+                   float bubbleCenterX, float bubbleCenterY, float bubbleRadius,
+                   float distance) {
+        //计算控制点坐标
+        mControlX = (bubbleCenterX + circleCenterX) / 2;
+        mControlY = (bubbleCenterY + circleCenterY) / 2;
+        //计算两条贝塞尔曲线的终点和起点
+        float sin = (bubbleCenterY - circleCenterY) / distance;
+        float cos = (bubbleCenterX - circleCenterX) / distance;
+
+        mCircleStartX = circleCenterX - circleRadius * sin;
+        mCircleStartY = circleCenterY + circleRadius * cos;
+
+        mBubbleEndX = bubbleCenterX - bubbleRadius * sin;
+        mBubbleEndY = bubbleCenterY + bubbleRadius * cos;
+
+        mBubbleStartX = bubbleCenterX + bubbleRadius * sin;
+        mBubbleStartY = bubbleCenterY - bubbleRadius * cos;
+
+        mCircleEndX = circleCenterX + circleRadius * sin;
+        mCircleEndY = circleCenterY - circleRadius * cos;
+    }
+
+    float getControlX() {
+        return mControlX;
+    }
+
+    float getControlY() {
+        return mControlY;
+    }
+
+    float getCircleStartX() {
+        return mCircleStartX;
+    }
+
+    float getCircleStartY() {
+        return mCircleStartY;
+    }
+
+    float getBubbleEndX() {
+        return mBubbleEndX;
+    }
+
+    float getBubbleEndY() {
+        return mBubbleEndY;
+    }
+
+    float getBubbleStartX() {
+        return mBubbleStartX;
+    }
+
+    float getBubbleStartY() {
+        return mBubbleStartY;
+    }
+
+    float getCircleEndX() {
+        return mCircleEndX;
+    }
+
+    float getCircleEndY() {
+        return mCircleEndY;
+    }
+}
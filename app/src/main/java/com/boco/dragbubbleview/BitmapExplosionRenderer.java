@@ -0,0 +1,89 @@
+package com.boco.dragbubbleview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+/**
+ * 逐帧播放爆炸图片
+ * <p>
+ * 帧从 {@link ExplosionFrameCache} 按气泡直径获取，还没解码完时画一个逐渐缩小并变淡的圆。
+ */
+public final class BitmapExplosionRenderer implements ExplosionRenderer {
+
+    private final ExplosionFrameCache mFrameCache;
+    private final Paint mBitmapPaint;
+    private final Paint mFallbackPaint;
+    private final Rect mRect = new Rect();
+    private Bitmap[] mFrames;
+    private float mCenterX;
+    private float mCenterY;
+    private float mRadius;
+    private int mColor;
+    private boolean mReducedQuality;
+
+    public BitmapExplosionRenderer(ExplosionFrameCache frameCache) {
+        mFrameCache = frameCache;
+        mBitmapPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mBitmapPaint.setFilterBitmap(true);
+        mFallbackPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mFallbackPaint.setStyle(Paint.Style.FILL);
+    }
+
+    @Override
+    public void start(float centerX, float centerY, float radius, int color) {
+        mCenterX = centerX;
+        mCenterY = centerY;
+        mRadius = radius;
+        mColor = color;
+        //按气泡直径取帧，同尺寸的气泡共用一份
+        mFrames = mFrameCache.peekFrames((int) (2 * radius));
+    }
+
+    @Override
+    public void draw(Canvas canvas, float progress) {
+        if (mFrames == null) {
+            drawFallback(canvas, mFallbackPaint, mColor, progress, mCenterX, mCenterY, mRadius);
+            return;
+        }
+        int frame = Math.min((int) (progress * mFrames.length), mFrames.length - 1);
+        if (mReducedQuality) {
+            frame -= frame % 2;
+        }
+        mRect.set((int) (mCenterX - mRadius), (int) (mCenterY - mRadius),
+                (int) (mCenterX + mRadius), (int) (mCenterY + mRadius));
+        canvas.drawBitmap(mFrames[frame], null, mRect, mBitmapPaint);
+    }
+
+    @Override
+    public void unionBounds(RectF out) {
+        out.union(mCenterX - mRadius, mCenterY - mRadius, mCenterX + mRadius, mCenterY + mRadius);
+    }
+
+    @Override
+    public void stop() {
+        mFrames = null;
+    }
+
+    /**
+     * 打开后只播放偶数帧，缩放时不过滤
+     */
+    public void setReducedQuality(boolean reduced) {
+        mReducedQuality = reduced;
+        mBitmapPaint.setFilterBitmap(!reduced);
+    }
+
+    /**
+     * 爆炸帧还没解码完时的替代动画：逐渐缩小并变淡的圆
+     */
+    static void drawFallback(Canvas canvas, Paint paint, int color, float progress,
+                             float centerX, float centerY, float radius) {
+        float remaining = 1 - progress;
+        paint.setColor(color);
+        paint.setAlpha((int) (Color.alpha(color) * remaining));
+        canvas.drawCircle(centerX, centerY, radius * remaining, paint);
+    }
+}
@@ -0,0 +1,94 @@
+package com.boco.dragbubbleview;
+
+import android.animation.ValueAnimator;
+import android.view.animation.AnimationUtils;
+import android.view.animation.LinearInterpolator;
+
+/**
+ * 进程共享的气泡动画帧时钟
+ * <p>
+ * 所有气泡的复原和消失动画都挂在同一个无限循环的 ValueAnimator 上，每帧只回调一次，
+ * 依次推进各个动画后统一发出重绘。没有动画时停止，不占用帧回调。只在主线程使用。
+ */
+public final class BubbleAnimationDriver {
+
+    private static BubbleAnimationDriver sInstance;
+
+    private final BubbleAnimationSlots mSlots = new BubbleAnimationSlots();
+    private ValueAnimator mTicker;
+
+    private BubbleAnimationDriver() {
+    }
+
+    public static BubbleAnimationDriver get() {
+        if (sInstance == null) {
+            sInstance = new BubbleAnimationDriver();
+        }
+        return sInstance;
+    }
+
+    /**
+     * 开始推进一个动画，已经在推进时从现在重新计时
+     */
+    void schedule(BubbleAnimationSlots.Client client) {
+        mSlots.add(client, AnimationUtils.currentAnimationTimeMillis());
+        if (mTicker == null) {
+            mTicker = ValueAnimator.ofFloat(0f, 1f);
+            mTicker.setDuration(1000);
+            mTicker.setRepeatCount(ValueAnimator.INFINITE);
+            mTicker.setInterpolator(new LinearInterpolator());
+            mTicker.addUpdateListener(mTickListener);
+        }
+        if (!mTicker.isStarted()) {
+            mTicker.start();
+        }
+    }
+
+    /**
+     * 停止推进一个动画，不会再收到回调
+     */
+    void cancel(BubbleAnimationSlots.Client client) {
+        mSlots.remove(client);
+        if (mSlots.getActiveCount() == 0 && mTicker != null) {
+            mTicker.cancel();
+        }
+    }
+
+    private final ValueAnimator.AnimatorUpdateListener mTickListener =
+            new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    if (mSlots.tick(AnimationUtils.currentAnimationTimeMillis()) == 0) {
+                        animation.cancel();
+                    }
+                }
+            };
+
+    /**
+     * 正在播放的气泡动画个数
+     */
+    public int getActiveCount() {
+        return mSlots.getActiveCount();
+    }
+
+    /**
+     * 累计的帧回调次数
+     */
+    public long getTickCount() {
+        return mSlots.getTickCount();
+    }
+
+    /**
+     * 上一帧推进所有动画并发出重绘的耗时(ns)
+     */
+    public long getLastTickNanos() {
+        return mSlots.getLastTickNanos();
+    }
+
+    /**
+     * 单帧的最大耗时(ns)
+     */
+    public long getMaxTickNanos() {
+        return mSlots.getMaxTickNanos();
+    }
+}
@@ -0,0 +1,167 @@
+package com.boco.dragbubbleview;
+
+/**
+ * {@link BubbleAnimationDriver} 中正在播放的动画表，不依赖 Android
+ * <p>
+ * 每个动画占一个槽位，上次推进的时间存放在基本类型数组里。每次 tick 先推进所有动画，
+ * 再统一让它们发出重绘，最后把结束的槽位压缩掉。tick 期间移除的动画只置空，
+ * 压缩时一并清理。
+ */
+final class BubbleAnimationSlots {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private Client[] mClients = new Client[INITIAL_CAPACITY];
+    private long[] mLastTimes = new long[INITIAL_CAPACITY];
+    private boolean[] mFinished = new boolean[INITIAL_CAPACITY];
+    private int mCount;
+    private boolean mTicking;
+
+    private long mTickCount;
+    private long mLastTickNanos;
+    private long mMaxTickNanos;
+
+    /**
+     * 由动画一方实现，槽位下标由本类维护
+     */
+    abstract static class Client {
+        private int mSlot = -1;
+
+        /**
+         * 推进动画
+         *
+         * @param deltaMillis 距上次推进经过的时间
+         * @return 动画仍在进行时返回 true
+         */
+        abstract boolean onTick(long deltaMillis);
+
+        /**
+         * 所有动画推进完后调用，发出本帧的重绘
+         *
+         * @param finished 动画已在本帧结束
+         */
+        abstract void onInvalidate(boolean finished);
+
+        boolean isScheduled() {
+            return mSlot >= 0;
+        }
+    }
+
+    /**
+     * 加入一个动画，已经在表中时只重置推进时间
+     *
+     * @param now 当前动画时间(ms)
+     */
+    void add(Client client, long now) {
+        if (client.mSlot >= 0) {
+            mLastTimes[client.mSlot] = now;
+            return;
+        }
+        if (mCount == mClients.length) {
+            int capacity = mCount * 2;
+            Client[] clients = new Client[capacity];
+            System.arraycopy(mClients, 0, clients, 0, mCount);
+            mClients = clients;
+            long[] lastTimes = new long[capacity];
+            System.arraycopy(mLastTimes, 0, lastTimes, 0, mCount);
+            mLastTimes = lastTimes;
+            boolean[] finished = new boolean[capacity];
+            System.arraycopy(mFinished, 0, finished, 0, mCount);
+            mFinished = finished;
+        }
+        client.mSlot = mCount;
+        mClients[mCount] = client;
+        mLastTimes[mCount] = now;
+        mFinished[mCount] = false;
+        mCount++;
+    }
+
+    /**
+     * 移除一个动画，不会再收到 onTick 和 onInvalidate
+     */
+    void remove(Client client) {
+        int slot = client.mSlot;
+        if (slot < 0) {
+            return;
+        }
+        client.mSlot = -1;
+        mClients[slot] = null;
+        if (!mTicking) {
+            compact();
+        }
+    }
+
+    /**
+     * 推进所有动画一帧
+     *
+     * @param now 当前动画时间(ms)
+     * @return 仍在进行的动画个数
+     */
+    int tick(long now) {
+        long start = System.nanoTime();
+        mTicking = true;
+        int count = mCount;
+        for (int i = 0; i < count; i++) {
+            Client client = mClients[i];
+            if (client != null) {
+                mFinished[i] = !client.onTick(now - mLastTimes[i]);
+                mLastTimes[i] = now;
+            }
+        }
+        //推进完再统一重绘，本帧的 invalidate 都落在同一次遍历中
+        for (int i = 0; i < count; i++) {
+            Client client = mClients[i];
+            if (client != null) {
+                if (mFinished[i]) {
+                    client.mSlot = -1;
+                    mClients[i] = null;
+                }
+                client.onInvalidate(mFinished[i]);
+            }
+        }
+        mTicking = false;
+        compact();
+        mTickCount++;
+        mLastTickNanos = System.nanoTime() - start;
+        mMaxTickNanos = Math.max(mMaxTickNanos, mLastTickNanos);
+        return mCount;
+    }
+
+    /**
+     * 去掉空槽位，保持剩余动画的顺序
+     */
+    private void compact() {
+        int to = 0;
+        for (int from = 0; from < mCount; from++) {
+            Client client = mClients[from];
+            if (client != null) {
+                if (to != from) {
+                    mClients[to] = client;
+                    mLastTimes[to] = mLastTimes[from];
+                    client.mSlot = to;
+                }
+                to++;
+            }
+        }
+        for (int i = to; i < mCount; i++) {
+            mClients[i] = null;
+        }
+        mCount = to;
+    }
+
+    int getActiveCount() {
+        return mCount;
+    }
+
+    long getTickCount() {
+        return mTickCount;
+    }
+
+    long getLastTickNanos() {
+        return mLastTickNanos;
+    }
+
+    long getMaxTickNanos() {
+        return mMaxTickNanos;
+    }
+}
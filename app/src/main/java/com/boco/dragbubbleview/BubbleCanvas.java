@@ -0,0 +1,54 @@
+package com.boco.dragbubbleview;
+
+/**
+ * 气泡绘制用到的画布和路径操作
+ * <p>
+ * {@link BubbleRenderer} 只通过这个接口绘制，设备上由 {@link AndroidBubbleCanvas} 转成
+ * Canvas 和 Path 调用，JVM 上可以换成记录或空实现来测试和测量绘制逻辑。
+ */
+interface BubbleCanvas {
+
+    void drawCircle(float centerX, float centerY, float radius, int color);
+
+    void drawRoundRect(float left, float top, float right, float bottom, float radius, int color);
+
+    /**
+     * 开始一条新路径
+     */
+    void moveTo(float x, float y);
+
+    void quadTo(float controlX, float controlY, float x, float y);
+
+    void lineTo(float x, float y);
+
+    /**
+     * 闭合并填充当前路径
+     */
+    void fillPath(int color);
+
+    /**
+     * 是否支持 {@link #drawMesh(float[], int, int)}
+     */
+    boolean supportsMesh();
+
+    /**
+     * 一次画出一组三角形
+     *
+     * @param vertices    顶点坐标，按 (x, y) 依次存放
+     * @param vertexCount 顶点个数，是 3 的倍数
+     */
+    void drawMesh(float[] vertices, int vertexCount, int color);
+
+    /**
+     * @param x 文本左侧
+     * @param y 文本基线
+     */
+    void drawText(String text, float x, float y);
+
+    /**
+     * 画爆炸动画，位置和大小在爆炸效果开始时已经确定
+     *
+     * @param progress 动画进度 [0, 1)
+     */
+    void drawExplosion(float progress);
+}
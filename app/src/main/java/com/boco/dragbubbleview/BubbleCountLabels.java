@@ -0,0 +1,71 @@
+package com.boco.dragbubbleview;
+
+/**
+ * 未读数到气泡文本的共享表
+ * <p>
+ * 每个数字的文本只格式化一次，同一个数字总是返回同一个 String，
+ * 调用方可以直接用 == 判断显示内容有没有变化。超出上限的数字显示为 "上限+"。
+ * 只在主线程使用。
+ */
+final class BubbleCountLabels {
+
+    static final int DEFAULT_MAX_COUNT = 99;
+    /**
+     * 表的最大长度，更大的上限不缓存，每次格式化
+     */
+    private static final int MAX_TABLE_SIZE = 10000;
+
+    private static String[] sLabels = new String[DEFAULT_MAX_COUNT + 1];
+    private static String[] sOverflowLabels = new String[DEFAULT_MAX_COUNT + 1];
+
+    private BubbleCountLabels() {
+    }
+
+    /**
+     * @param count    未读数
+     * @param maxCount 显示的上限，大于 0
+     * @return count 小于等于 0 时返回 null
+     */
+    static String get(int count, int maxCount) {
+        if (count <= 0) {
+            return null;
+        }
+        if (count > maxCount) {
+            return overflow(maxCount);
+        }
+        if (count >= MAX_TABLE_SIZE) {
+            return String.valueOf(count);
+        }
+        if (count >= sLabels.length) {
+            sLabels = grow(sLabels, count);
+        }
+        String label = sLabels[count];
+        if (label == null) {
+            label = String.valueOf(count);
+            sLabels[count] = label;
+        }
+        return label;
+    }
+
+    private static String overflow(int maxCount) {
+        if (maxCount >= MAX_TABLE_SIZE) {
+            return maxCount + "+";
+        }
+        if (maxCount >= sOverflowLabels.length) {
+            sOverflowLabels = grow(sOverflowLabels, maxCount);
+        }
+        String label = sOverflowLabels[maxCount];
+        if (label == null) {
+            label = maxCount + "+";
+            sOverflowLabels[maxCount] = label;
+        }
+        return label;
+    }
+
+    private static String[] grow(String[] table, int index) {
+        String[] grown = new String[Math.min(Math.max(index + 1, table.length * 2),
+                MAX_TABLE_SIZE)];
+        System.arraycopy(table, 0, grown, 0, table.length);
+        return grown;
+    }
+}
@@ -0,0 +1,224 @@
+package com.boco.dragbubbleview;
+
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一键清除：让一组气泡依次消失
+ * <p>
+ * 气泡按给定顺序每隔 {@link #setStaggerMillis(long)} 开始消失，同时播放的爆炸效果
+ * 不超过 {@link #setMaxConcurrentEffects(int)} 个，超出的只淡出。进度挂在
+ * {@link BubbleAnimationDriver} 上推进，各个气泡不回调 onDismiss，
+ * 全部消失后通过 {@link OnDismissAllListener} 一次性通知。只在主线程使用。
+ * <p>
+ * 气泡通过 {@link Target} 接入，{@link DragBubbleView} 已经实现。
+ *
+ * @param <T> 气泡类型，通常是 DragBubbleView
+ */
+public final class BubbleDismissCascade<T extends BubbleDismissCascade.Target> {
+
+    public static final long DEFAULT_STAGGER_MILLIS = 24;
+    public static final int DEFAULT_MAX_CONCURRENT_EFFECTS = 6;
+
+    /**
+     * 可以被依次清除的气泡
+     */
+    public interface Target {
+        /**
+         * 是否正在显示，没有显示的气泡会被跳过
+         */
+        boolean isShown();
+
+        /**
+         * 不经过拖拽直接消失，不单独回调 onDismiss
+         *
+         * @param fade 为 true 时只淡出，不播放爆炸效果
+         * @return 没有显示气泡或已经在消失时返回 false
+         */
+        boolean dismissQuietly(boolean fade);
+
+        /**
+         * 是否正在播放消失效果
+         */
+        boolean isDismissAnimating();
+    }
+
+    public interface OnDismissAllListener<T> {
+        /**
+         * 所有气泡的消失动画都已结束
+         *
+         * @param dismissed 实际消失的气泡，不包括没有显示或已经在消失的
+         */
+        void onDismissAll(List<T> dismissed);
+    }
+
+    /**
+     * 推进清除进度的帧时钟，默认是 {@link BubbleAnimationDriver}，测试中换成手动推进
+     */
+    interface Ticker {
+        void schedule(BubbleAnimationSlots.Client client);
+
+        void cancel(BubbleAnimationSlots.Client client);
+    }
+
+    private static final Ticker DRIVER_TICKER = new Ticker() {
+        @Override
+        public void schedule(BubbleAnimationSlots.Client client) {
+            BubbleAnimationDriver.get().schedule(client);
+        }
+
+        @Override
+        public void cancel(BubbleAnimationSlots.Client client) {
+            BubbleAnimationDriver.get().cancel(client);
+        }
+    };
+
+    private final Ticker mTicker;
+
+    private long mStaggerMillis = DEFAULT_STAGGER_MILLIS;
+    private int mMaxConcurrentEffects = DEFAULT_MAX_CONCURRENT_EFFECTS;
+
+    private final ArrayList<T> mPending = new ArrayList<>();
+    private final ArrayList<T> mDismissed = new ArrayList<>();
+    /**
+     * 正在播放爆炸效果的气泡
+     */
+    private final ArrayList<T> mEffects = new ArrayList<>();
+    private OnDismissAllListener<T> mListener;
+    /**
+     * 下一个要开始的气泡在 mPending 中的下标
+     */
+    private int mNext;
+    private long mElapsed;
+    private int mFadeCount;
+
+    public BubbleDismissCascade() {
+        this(DRIVER_TICKER);
+    }
+
+    BubbleDismissCascade(Ticker ticker) {
+        mTicker = ticker;
+    }
+
+    /**
+     * 相邻两个气泡开始消失的间隔，默认 24ms
+     */
+    public void setStaggerMillis(long staggerMillis) {
+        mStaggerMillis = Math.max(0, staggerMillis);
+    }
+
+    /**
+     * 同时播放的爆炸效果上限，默认 6 个，为 0 时全部淡出
+     */
+    public void setMaxConcurrentEffects(int maxConcurrentEffects) {
+        mMaxConcurrentEffects = Math.max(0, maxConcurrentEffects);
+    }
+
+    /**
+     * 开始清除，上一次清除还没结束时先取消它
+     *
+     * @param bubbles  要清除的气泡，按这个顺序依次消失
+     * @param listener 全部消失后的回调
+     */
+    public void start(Collection<? extends T> bubbles,
+                      @Nullable OnDismissAllListener<T> listener) {
+        cancel();
+        for (T bubble : bubbles) {
+            if (bubble.isShown()) {
+                mPending.add(bubble);
+            }
+        }
+        mListener = listener;
+        mElapsed = 0;
+        mFadeCount = 0;
+        //第一个气泡立即开始，不等下一帧
+        startDueBubbles();
+        mTicker.schedule(mClient);
+    }
+
+    /**
+     * 取消还没开始的气泡，已经开始的继续播放完，不再回调
+     */
+    public void cancel() {
+        mTicker.cancel(mClient);
+        clear();
+    }
+
+    public boolean isRunning() {
+        return mClient.isScheduled();
+    }
+
+    /**
+     * 本次清除中因为超出预算而只淡出的气泡个数
+     */
+    public int getFadeCount() {
+        return mFadeCount;
+    }
+
+    private void startDueBubbles() {
+        for (int i = mEffects.size() - 1; i >= 0; i--) {
+            if (!mEffects.get(i).isDismissAnimating()) {
+                mEffects.remove(i);
+            }
+        }
+        while (mNext < mPending.size() && mNext * mStaggerMillis <= mElapsed) {
+            T bubble = mPending.get(mNext++);
+            boolean fullEffect = mEffects.size() < mMaxConcurrentEffects;
+            if (bubble.dismissQuietly(!fullEffect)) {
+                mDismissed.add(bubble);
+                if (fullEffect) {
+                    mEffects.add(bubble);
+                } else {
+                    mFadeCount++;
+                }
+            }
+        }
+    }
+
+    private boolean isFinished() {
+        if (mNext < mPending.size()) {
+            return false;
+        }
+        for (int i = 0, size = mDismissed.size(); i < size; i++) {
+            if (mDismissed.get(i).isDismissAnimating()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void clear() {
+        mPending.clear();
+        mDismissed.clear();
+        mEffects.clear();
+        mListener = null;
+        mNext = 0;
+    }
+
+    private final BubbleAnimationSlots.Client mClient = new BubbleAnimationSlots.Client() {
+        @Override
+        boolean onTick(long deltaMillis) {
+            mElapsed += deltaMillis;
+            startDueBubbles();
+            return !isFinished();
+        }
+
+        @Override
+        void onInvalidate(boolean finished) {
+            if (!finished) {
+                return;
+            }
+            OnDismissAllListener<T> listener = mListener;
+            List<T> dismissed = Collections.unmodifiableList(
+                    new ArrayList<>(mDismissed));
+            clear();
+            if (listener != null) {
+                listener.onDismissAll(dismissed);
+            }
+        }
+    };
+}
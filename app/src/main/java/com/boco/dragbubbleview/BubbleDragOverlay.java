@@ -0,0 +1,114 @@
+package com.boco.dragbubbleview;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+
+/**
+ * 窗口级的拖拽浮层
+ * <p>
+ * 铺满 DecorView 的透明 View，每个窗口一个，第一次使用时添加，之后一直保留。
+ * 拖拽开始时气泡交给浮层绘制，复原或爆炸结束后交还，期间只有浮层按帧重绘，
+ * 气泡所在的列表和父布局不需要 clipChildren="false"，也不会被 invalidate。
+ * 浮层不可点击，触摸事件仍然交给下面的 View。
+ */
+final class BubbleDragOverlay extends View {
+
+    /**
+     * 正在浮层上绘制的气泡
+     */
+    private final ArrayList<DragBubbleView> mHosts = new ArrayList<>();
+    private final int[] mHostLocation = new int[2];
+    private final int[] mLocation = new int[2];
+    private final Rect mDirtyRect = new Rect();
+
+    private BubbleDragOverlay(Context context) {
+        super(context);
+        setWillNotDraw(true);
+    }
+
+    /**
+     * 获取 host 所在窗口的浮层，没有时添加到 DecorView
+     *
+     * @return 根 View 不是 ViewGroup 时返回 null
+     */
+    static BubbleDragOverlay obtain(View host) {
+        View root = host.getRootView();
+        if (!(root instanceof ViewGroup)) {
+            return null;
+        }
+        ViewGroup decor = (ViewGroup) root;
+        for (int i = decor.getChildCount() - 1; i >= 0; i--) {
+            View child = decor.getChildAt(i);
+            if (child instanceof BubbleDragOverlay) {
+                return (BubbleDragOverlay) child;
+            }
+        }
+        BubbleDragOverlay overlay = new BubbleDragOverlay(host.getContext());
+        decor.addView(overlay, new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.MATCH_PARENT));
+        return overlay;
+    }
+
+    /**
+     * 接管 host 的气泡绘制
+     */
+    void attach(DragBubbleView host) {
+        if (mHosts.contains(host)) {
+            return;
+        }
+        mHosts.add(host);
+        setWillNotDraw(false);
+    }
+
+    /**
+     * 把气泡交还给 host，擦掉浮层上的残留
+     *
+     * @param bounds 气泡最后一帧在 host 坐标系中的绘制区域
+     */
+    void detach(DragBubbleView host, Rect bounds) {
+        if (mHosts.remove(host)) {
+            invalidateHost(host, bounds);
+            if (mHosts.isEmpty()) {
+                setWillNotDraw(true);
+            }
+        }
+    }
+
+    /**
+     * 重绘 host 坐标系中的一块区域
+     */
+    void invalidateHost(DragBubbleView host, Rect dirty) {
+        updateOffset(host);
+        mDirtyRect.set(dirty);
+        mDirtyRect.offset(mHostLocation[0], mHostLocation[1]);
+        invalidate(mDirtyRect);
+    }
+
+    /**
+     * 计算 host 相对浮层的偏移，列表在动画过程中滚动时气泡也跟着走
+     */
+    private void updateOffset(View host) {
+        host.getLocationInWindow(mHostLocation);
+        getLocationInWindow(mLocation);
+        mHostLocation[0] += -mLocation[0] - host.getScrollX();
+        mHostLocation[1] += -mLocation[1] - host.getScrollY();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        for (int i = 0, size = mHosts.size(); i < size; i++) {
+            DragBubbleView host = mHosts.get(i);
+            updateOffset(host);
+            int saveCount = canvas.save();
+            canvas.translate(mHostLocation[0], mHostLocation[1]);
+            host.drawBubble(canvas);
+            canvas.restoreToCount(saveCount);
+        }
+    }
+}
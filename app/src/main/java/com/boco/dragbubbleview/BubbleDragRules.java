@@ -0,0 +1,110 @@
+package com.boco.dragbubbleview;
+
+/**
+ * 气泡拖拽的状态和距离阈值
+ * <p>
+ * DragBubbleView 和 BubbleLayer 共用同一套规则，保证两者手感一致。
+ */
+final class BubbleDragRules {
+
+    /**
+     * 默认状态，无法拖动
+     */
+    static final int STATE_DEFAULT = 0x00;
+    /**
+     * 拖拽
+     */
+    static final int STATE_DRAG = 0x01;
+    /**
+     * 移动
+     */
+    static final int STATE_MOVE = 0x02;
+    /**
+     * 消失
+     */
+    static final int STATE_DISMISS = 0x03;
+
+    /**
+     * 一位数，圆形
+     */
+    static final int SHAPE_CIRCLE = 0;
+    /**
+     * 两位数，较窄的圆角矩形
+     */
+    static final int SHAPE_ROUND_RECT_2 = 1;
+    /**
+     * 三位及以上，较宽的圆角矩形
+     */
+    static final int SHAPE_ROUND_RECT_3 = 2;
+
+    private BubbleDragRules() {
+        /* cannot be instantiated */
+        throw new UnsupportedOperationException("cannot be instantiated");
+    }
+
+    /**
+     * 可拖拽的最大间距
+     */
+    static float maxDistance(float bubbleRadius) {
+        return 8 * bubbleRadius;
+    }
+
+    /**
+     * 按下时可以拾取气泡的半径
+     * <p>
+     * 一般气泡比较小，增加(maxDistance/4)像素是为了更轻松的拖拽
+     */
+    static float touchSlop(float bubbleRadius, float maxDistance) {
+        return bubbleRadius + maxDistance / 4;
+    }
+
+    /**
+     * 间距是否仍在可黏连的范围内
+     * <p>
+     * 减去(maxDistance/4) 的像素大小，是为了让黏连小球半径到一个较小值快消失时直接消失
+     */
+    static boolean isSticky(float distance, float maxDistance) {
+        return distance < maxDistance - maxDistance / 4;
+    }
+
+    /**
+     * 黏质小球随间距渐渐变小的半径
+     */
+    static float stickyRadius(float bubbleRadius, float distance) {
+        return bubbleRadius - distance / 10;
+    }
+
+    /**
+     * 移动状态下松手时是否复原，间距回到两倍半径以内认为用户不想取消该气泡
+     */
+    static boolean shouldRestore(float distance, float bubbleRadius) {
+        return distance < 2 * bubbleRadius;
+    }
+
+    /**
+     * 根据文本长度选择气泡形状
+     */
+    static int shapeOf(int textLength) {
+        if (textLength <= 1) {
+            return SHAPE_CIRCLE;
+        } else if (textLength <= 2) {
+            return SHAPE_ROUND_RECT_2;
+        } else {
+            return SHAPE_ROUND_RECT_3;
+        }
+    }
+
+    /**
+     * 根据气泡形状得到半宽
+     */
+    static float halfWidth(float bubbleRadius, int shape) {
+        switch (shape) {
+            case SHAPE_CIRCLE:
+                return bubbleRadius;
+            case SHAPE_ROUND_RECT_2:
+                return bubbleRadius * 4 / 3;
+            default:
+                return bubbleRadius * 3 / 2;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.boco.dragbubbleview;
+
+import java.util.HashMap;
+
+/**
+ * 气泡动画使用的插值曲线
+ * <p>
+ * 阻尼弹簧曲线在创建时按固定点数采样成 float 查找表，同参数的表在进程内共享，
+ * 运行时只做一次线性插值，不再逐帧计算 Math.pow 和 Math.sin。
+ */
+public final class BubbleInterpolators {
+
+    /**
+     * 默认采样点数
+     */
+    public static final int DEFAULT_SAMPLES = 256;
+    /**
+     * 复原颤动的衰减系数，振幅按 2^(-decay * t) 衰减
+     */
+    public static final float RESTORE_DECAY = 4f;
+    /**
+     * 复原颤动的周期，见 http://inloop.github.io/interpolator/
+     */
+    public static final float RESTORE_PERIOD = 0.571429f;
+
+    private static final HashMap<String, SpringTable> sTables = new HashMap<>();
+
+    private BubbleInterpolators() {
+        /* cannot be instantiated */
+        throw new UnsupportedOperationException("cannot be instantiated");
+    }
+
+    /**
+     * 复原动画默认使用的颤动曲线
+     */
+    public static SpringTable restoreWobble() {
+        return spring(RESTORE_DECAY, RESTORE_PERIOD, DEFAULT_SAMPLES);
+    }
+
+    /**
+     * 获取阻尼弹簧曲线的查找表，同参数只采样一次
+     *
+     * @param decay   衰减系数
+     * @param period  振动周期(以动画进度计)
+     * @param samples 采样点数，至少为 2
+     */
+    public static synchronized SpringTable spring(float decay, float period, int samples) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive: " + period);
+        }
+        if (samples < 2) {
+            throw new IllegalArgumentException("samples must be at least 2: " + samples);
+        }
+        String key = decay + "/" + period + "/" + samples;
+        SpringTable table = sTables.get(key);
+        if (table == null) {
+            table = new SpringTable(decay, period, samples);
+            sTables.put(key, table);
+        }
+        return table;
+    }
+
+    /**
+     * 阻尼弹簧曲线的解析式，用于采样和误差校验
+     */
+    public static float dampedSpring(float input, float decay, float period) {
+        return (float) (Math.pow(2, -decay * input) * Math.sin((input - period / 4) * (2 * Math
+                .PI) / period) + 1);
+    }
+
+    /**
+     * 阻尼弹簧曲线的采样表
+     */
+    public static final class SpringTable {
+        private final float mDecay;
+        private final float mPeriod;
+        private final float[] mValues;
+        private final int mLastIndex;
+
+        private SpringTable(float decay, float period, int samples) {
+            mDecay = decay;
+            mPeriod = period;
+            mValues = new float[samples];
+            mLastIndex = samples - 1;
+            for (int i = 0; i < samples; i++) {
+                mValues[i] = dampedSpring((float) i / mLastIndex, decay, period);
+            }
+        }
+
+        /**
+         * 在相邻两个采样点之间线性插值
+         *
+         * @param input 动画进度 [0, 1]，超出范围时取端点
+         */
+        public float getInterpolation(float input) {
+            if (input <= 0f) {
+                return mValues[0];
+            }
+            if (input >= 1f) {
+                return mValues[mLastIndex];
+            }
+            float position = input * mLastIndex;
+            int index = (int) position;
+            float fraction = position - index;
+            float start = mValues[index];
+            return start + (mValues[index + 1] - start) * fraction;
+        }
+
+        public float getDecay() {
+            return mDecay;
+        }
+
+        public float getPeriod() {
+            return mPeriod;
+        }
+
+        public int getSampleCount() {
+            return mValues.length;
+        }
+    }
+}
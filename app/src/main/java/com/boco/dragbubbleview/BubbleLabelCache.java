@@ -0,0 +1,112 @@
+package com.boco.dragbubbleview;
+
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.SparseArray;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 气泡文本的测量缓存
+ * <p>
+ * 每个字号一份，文本对应的气泡形状和相对圆心的绘制偏移只在第一次使用时测量，
+ * 常用的 "1"~"99" 和 "99+" 在创建时预先测量，onDraw 中不再调用 getTextBounds。
+ */
+final class BubbleLabelCache {
+
+    private static final int PRELOAD_MAX = 99;
+    private static final int MAX_ENTRIES = 256;
+
+    /**
+     * key 为字号的 floatToIntBits
+     */
+    private static final SparseArray<BubbleLabelCache> sCaches = new SparseArray<>();
+
+    private final Paint mPaint;
+    private final Rect mBounds = new Rect();
+    private final LinkedHashMap<String, Label> mLabels;
+
+    private BubbleLabelCache(float textSize) {
+        mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mPaint.setTextSize(textSize);
+        mLabels = new LinkedHashMap<String, Label>(MAX_ENTRIES, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Label> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        };
+        //和 BubbleCountLabels 用同一批字符串，查找时直接命中引用相等
+        for (int i = 1; i <= PRELOAD_MAX + 1; i++) {
+            get(BubbleCountLabels.get(i, PRELOAD_MAX));
+        }
+    }
+
+    /**
+     * 获取指定字号的缓存
+     */
+    static synchronized BubbleLabelCache get(float textSize) {
+        int key = Float.floatToIntBits(textSize);
+        BubbleLabelCache cache = sCaches.get(key);
+        if (cache == null) {
+            cache = new BubbleLabelCache(textSize);
+            sCaches.put(key, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * 获取文本的测量结果
+     *
+     * @param text 非空文本
+     */
+    synchronized Label get(String text) {
+        Label label = mLabels.get(text);
+        if (label == null) {
+            mPaint.getTextBounds(text, 0, text.length(), mBounds);
+            label = new Label(text, BubbleDragRules.shapeOf(text.length()),
+                    -(mBounds.width() / 2), mBounds.height() / 2);
+            mLabels.put(text, label);
+        }
+        return label;
+    }
+
+    /**
+     * 一个文本的形状和绘制偏移
+     */
+    static final class Label {
+        private final String mText;
+        private final int mShape;
+        private final float mOffsetX;
+        private final float mOffsetY;
+
+        private Label(String text, int shape, float offsetX, float offsetY) {
+            mText = text;
+            mShape = shape;
+            mOffsetX = offsetX;
+            mOffsetY = offsetY;
+        }
+
+        String getText() {
+            return mText;
+        }
+
+        int getShape() {
+            return mShape;
+        }
+
+        /**
+         * drawText 的 x 相对气泡圆心的偏移
+         */
+        float getOffsetX() {
+            return mOffsetX;
+        }
+
+        /**
+         * drawText 的 y(基线) 相对气泡圆心的偏移
+         */
+        float getOffsetY() {
+            return mOffsetY;
+        }
+    }
+}
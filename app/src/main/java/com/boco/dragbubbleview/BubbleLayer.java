@@ -0,0 +1,697 @@
+package com.boco.dragbubbleview;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.animation.AnimationUtils;
+
+/**
+ * 在一个 View 中绘制和拖拽多个气泡
+ * <p>
+ * 气泡状态按字段分列保存在基本类型数组中，一次 onDraw 画出全部气泡，
+ * 不需要为每个气泡创建 View。拖拽规则、贝塞尔曲线和复原曲线与 DragBubbleView 共用，
+ * 同一时间只有一个气泡跟随手指，复原和消失动画可以同时进行多个。
+ */
+public class BubbleLayer extends View {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long NO_ANIM = -1;
+    /**
+     * 气泡id的低位是槽位，高位是槽位的复用代数
+     */
+    private static final int SLOT_BITS = 16;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    private static final int MAX_GENERATION = Integer.MAX_VALUE >>> SLOT_BITS;
+
+    private Paint mBubblePaint;
+    private Paint mTextPaint;
+    private Paint mExplosionPaint;
+    private Path mBezierPath;
+    private RectF mBubbleRectF;
+    private Rect mExplosionRect;
+    private final BezierNeck mBezierNeck = new BezierNeck();
+    private final BubbleInterpolators.SpringTable mRestoreTable =
+            BubbleInterpolators.restoreWobble();
+    private ExplosionFrameCache mExplosionFrameCache;
+    private BubbleLabelCache mLabelCache;
+    /**
+     * 可拾取气泡的网格索引，不包含正在消失和没有文本的气泡
+     */
+    private BubbleSpatialIndex mSpatialIndex;
+    /**
+     * 复原和消失动画时长
+     */
+    private long mRestoreDuration = 500;
+    private long mDismissDuration = 500;
+
+    /**
+     * 气泡个数，数组中 [0, mCount) 有效
+     */
+    private int mCount;
+    /**
+     * 下标 -> 气泡id
+     */
+    private int[] mIds;
+    /**
+     * 槽位 -> 下标，空闲的槽位为 -1
+     */
+    private int[] mIndexOfSlot;
+    /**
+     * 槽位当前的代数，槽位每复用一次加一
+     */
+    private int[] mSlotGeneration;
+    /**
+     * 可复用的槽位，网格索引以槽位为键
+     */
+    private int[] mFreeSlots;
+    private int mFreeSlotCount;
+    private int mNextSlot;
+
+    /**
+     * 手指拖拽气泡圆心坐标
+     */
+    private float[] mCenterX;
+    private float[] mCenterY;
+    /**
+     * 黏质小球圆心坐标，即气泡原来的位置
+     */
+    private float[] mHomeX;
+    private float[] mHomeY;
+    private float[] mRadius;
+    private int[] mColor;
+    /**
+     * 气泡文本的测量结果，文本为空时为 null
+     */
+    private BubbleLabelCache.Label[] mLabel;
+    private int[] mState;
+    /**
+     * 复原或消失动画的开始时间，没有动画时为 NO_ANIM
+     */
+    private long[] mAnimStart;
+    /**
+     * 消失动画的进度，由帧时钟推进，onDraw 只读取
+     */
+    private float[] mAnimFraction;
+    /**
+     * 复原动画的起点
+     */
+    private float[] mAnimFromX;
+    private float[] mAnimFromY;
+    /**
+     * 消失时取到的爆炸帧
+     */
+    private Bitmap[][] mExplosionFrames;
+
+    /**
+     * 正在拖拽的气泡id，没有时为 -1
+     */
+    private int mDragId = -1;
+    /**
+     * 拖拽气泡和黏质小球之间的距离
+     */
+    private float mDistance;
+    /**
+     * 黏质小球半径
+     */
+    private float mCircleRadius;
+
+    private OnBubbleStateListener mOnBubbleStateListener;
+
+    public BubbleLayer(Context context) {
+        this(context, null);
+    }
+
+    public BubbleLayer(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public BubbleLayer(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init();
+    }
+
+    private void init() {
+        mBubblePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mBubblePaint.setStyle(Paint.Style.FILL);
+        mTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mTextPaint.setColor(Color.WHITE);
+        mTextPaint.setTextSize(DensityUtils.dp2px(getContext(), 12));
+        mLabelCache = BubbleLabelCache.get(mTextPaint.getTextSize());
+        mExplosionPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mExplosionPaint.setFilterBitmap(true);
+        mBezierPath = new Path();
+        mBubbleRectF = new RectF();
+        mExplosionRect = new Rect();
+        mExplosionFrameCache = ExplosionFrameCache.get(getContext());
+        //默认 12dp 半径气泡拾取半径的两倍
+        mSpatialIndex = new BubbleSpatialIndex(DensityUtils.dp2px(getContext(), 72));
+
+        mIds = new int[INITIAL_CAPACITY];
+        mIndexOfSlot = new int[INITIAL_CAPACITY];
+        mSlotGeneration = new int[INITIAL_CAPACITY];
+        mFreeSlots = new int[INITIAL_CAPACITY];
+        mCenterX = new float[INITIAL_CAPACITY];
+        mCenterY = new float[INITIAL_CAPACITY];
+        mHomeX = new float[INITIAL_CAPACITY];
+        mHomeY = new float[INITIAL_CAPACITY];
+        mRadius = new float[INITIAL_CAPACITY];
+        mColor = new int[INITIAL_CAPACITY];
+        mLabel = new BubbleLabelCache.Label[INITIAL_CAPACITY];
+        mState = new int[INITIAL_CAPACITY];
+        mAnimStart = new long[INITIAL_CAPACITY];
+        mAnimFraction = new float[INITIAL_CAPACITY];
+        mAnimFromX = new float[INITIAL_CAPACITY];
+        mAnimFromY = new float[INITIAL_CAPACITY];
+        mExplosionFrames = new Bitmap[INITIAL_CAPACITY][];
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        mSpatialIndex.setBounds(w, h);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mExplosionFrameCache.acquire();
+        boolean animating = false;
+        for (int i = 0; i < mCount; i++) {
+            //没有引用时缓存不预解码，添加时还没显示的气泡在这里补上
+            mExplosionFrameCache.prefetch((int) (2 * mRadius[i]));
+            animating |= mAnimStart[i] != NO_ANIM;
+        }
+        //离开窗口时停掉的动画接着推进
+        if (animating) {
+            scheduleAnimation();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        BubbleAnimationDriver.get().cancel(mAnimationClient);
+        mExplosionFrameCache.release();
+    }
+
+    /**
+     * 设置复原和消失动画的时长，默认都是 500ms
+     */
+    public void setAnimationDurations(long restoreMillis, long dismissMillis) {
+        mRestoreDuration = restoreMillis;
+        mDismissDuration = dismissMillis;
+    }
+
+    /**
+     * 动画进度、复原结束的状态变化和炸完气泡的移除都由共享帧时钟推进，
+     * View 不可见、没有 onDraw 时动画也能结束，onDraw 只负责画
+     */
+    private final BubbleAnimationSlots.Client mAnimationClient =
+            new BubbleAnimationSlots.Client() {
+                @Override
+                boolean onTick(long deltaMillis) {
+                    return advanceAnimations(AnimationUtils.currentAnimationTimeMillis());
+                }
+
+                @Override
+                void onInvalidate(boolean finished) {
+                    //结束时再画一次最终位置和移除后的结果
+                    invalidate();
+                }
+            };
+
+    /**
+     * 按时间推进所有复原和消失动画
+     *
+     * @return 还有动画在进行时返回 true
+     */
+    private boolean advanceAnimations(long now) {
+        boolean animating = false;
+        for (int i = 0; i < mCount; i++) {
+            if (mAnimStart[i] == NO_ANIM) {
+                continue;
+            }
+            boolean dismissing = mState[i] == BubbleDragRules.STATE_DISMISS;
+            long duration = dismissing ? mDismissDuration : mRestoreDuration;
+            float fraction = Math.min(1f, (float) (now - mAnimStart[i]) / duration);
+            if (dismissing) {
+                mAnimFraction[i] = fraction;
+                if (fraction >= 1f) {
+                    mAnimStart[i] = NO_ANIM;
+                }
+            } else {
+                advanceRestore(i, fraction);
+            }
+            animating |= mAnimStart[i] != NO_ANIM;
+        }
+        //移除已经炸完的气泡
+        for (int i = mCount - 1; i >= 0; i--) {
+            if (mState[i] == BubbleDragRules.STATE_DISMISS && mAnimStart[i] == NO_ANIM) {
+                removeAt(i);
+            }
+        }
+        return animating;
+    }
+
+    private void scheduleAnimation() {
+        if (!mAnimationClient.isScheduled()) {
+            BubbleAnimationDriver.get().schedule(mAnimationClient);
+        }
+    }
+
+    /**
+     * 添加一个气泡
+     *
+     * @param x      圆心X坐标(本 View 坐标系)
+     * @param y      圆心Y坐标
+     * @param radius 气泡半径
+     * @param color  气泡颜色
+     * @param text   气泡消息文本
+     * @return 气泡id，在移除之前保持不变。气泡移除(包括炸完后自动移除)后id失效，
+     * 之后用它调用的方法都不起作用；id 中带有槽位的复用代数，同一槽位上的新气泡拿到的是不同的id，
+     * 旧id不会误操作新气泡，直到同一槽位被复用约三万次后代数回绕
+     */
+    public int addBubble(float x, float y, float radius, int color, String text) {
+        ensureCapacity(mCount + 1);
+        int slot;
+        if (mFreeSlotCount > 0) {
+            slot = mFreeSlots[--mFreeSlotCount];
+        } else {
+            if (mNextSlot > SLOT_MASK) {
+                throw new IllegalStateException("Too many bubbles: " + mNextSlot);
+            }
+            slot = mNextSlot++;
+            if (slot >= mIndexOfSlot.length) {
+                mIndexOfSlot = grow(mIndexOfSlot, slot + 1);
+                mSlotGeneration = grow(mSlotGeneration, slot + 1);
+            }
+        }
+        int id = (mSlotGeneration[slot] << SLOT_BITS) | slot;
+        int index = mCount++;
+        mIds[index] = id;
+        mIndexOfSlot[slot] = index;
+        mCenterX[index] = x;
+        mCenterY[index] = y;
+        mHomeX[index] = x;
+        mHomeY[index] = y;
+        mRadius[index] = radius;
+        mColor[index] = color;
+        mLabel[index] = resolveLabel(text);
+        mState[index] = BubbleDragRules.STATE_DEFAULT;
+        mAnimStart[index] = NO_ANIM;
+        mExplosionFrames[index] = null;
+        //在后台解码这个尺寸的爆炸帧，同尺寸的气泡只解码一次
+        mExplosionFrameCache.prefetch((int) (2 * radius));
+        updateSpatialIndex(index);
+        invalidate();
+        return id;
+    }
+
+    /**
+     * 移除气泡，最后一个气泡会移到被移除的位置上
+     */
+    public void removeBubble(int id) {
+        int index = indexOf(id);
+        if (index < 0) {
+            return;
+        }
+        if (id == mDragId) {
+            mDragId = -1;
+        }
+        removeAt(index);
+        invalidate();
+    }
+
+    public void setBubbleText(int id, String text) {
+        int index = indexOf(id);
+        if (index >= 0) {
+            mLabel[index] = resolveLabel(text);
+            updateSpatialIndex(index);
+            invalidate();
+        }
+    }
+
+    /**
+     * 移动气泡原来的位置，正在拖拽或动画中的气泡在结束后生效
+     */
+    public void setBubblePosition(int id, float x, float y) {
+        int index = indexOf(id);
+        if (index < 0) {
+            return;
+        }
+        mHomeX[index] = x;
+        mHomeY[index] = y;
+        if (id != mDragId && mAnimStart[index] == NO_ANIM) {
+            mCenterX[index] = x;
+            mCenterY[index] = y;
+            updateSpatialIndex(index);
+        }
+        invalidate();
+    }
+
+    public int getBubbleCount() {
+        return mCount;
+    }
+
+    public void setTextColor(int textColor) {
+        mTextPaint.setColor(textColor);
+        invalidate();
+    }
+
+    public void setTextSize(float textSize) {
+        mTextPaint.setTextSize(textSize);
+        mLabelCache = BubbleLabelCache.get(textSize);
+        for (int i = 0; i < mCount; i++) {
+            if (mLabel[i] != null) {
+                mLabel[i] = mLabelCache.get(mLabel[i].getText());
+            }
+        }
+        invalidate();
+    }
+
+    private BubbleLabelCache.Label resolveLabel(String text) {
+        return TextUtils.isEmpty(text) ? null : mLabelCache.get(text);
+    }
+
+    public void setOnBubbleStateListener(OnBubbleStateListener onBubbleStateListener) {
+        mOnBubbleStateListener = onBubbleStateListener;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getAction()) {
+            case MotionEvent.ACTION_DOWN: {
+                int index = findBubbleAt(event.getX(), event.getY());
+                if (index < 0) {
+                    //没有按到气泡，交给下面的 View 处理
+                    return false;
+                }
+                getParent().requestDisallowInterceptTouchEvent(true);
+                //复原过程中再次按下，停止复原交给手指
+                mAnimStart[index] = NO_ANIM;
+                mState[index] = BubbleDragRules.STATE_DRAG;
+                mDragId = mIds[index];
+                mDistance = (float) Math.hypot(mCenterX[index] - mHomeX[index],
+                        mCenterY[index] - mHomeY[index]);
+                mCircleRadius = mRadius[index];
+                return true;
+            }
+            case MotionEvent.ACTION_MOVE: {
+                int index = indexOf(mDragId);
+                if (index < 0) {
+                    return false;
+                }
+                float radius = mRadius[index];
+                float maxDistance = BubbleDragRules.maxDistance(radius);
+                mCenterX[index] = event.getX();
+                mCenterY[index] = event.getY();
+                updateSpatialIndex(index);
+                mDistance = (float) Math.hypot(mCenterX[index] - mHomeX[index],
+                        mCenterY[index] - mHomeY[index]);
+                if (mState[index] == BubbleDragRules.STATE_DRAG) {
+                    if (BubbleDragRules.isSticky(mDistance, maxDistance)) {
+                        mCircleRadius = BubbleDragRules.stickyRadius(radius, mDistance);
+                        if (mOnBubbleStateListener != null) {
+                            mOnBubbleStateListener.onDrag(mDragId);
+                        }
+                    } else {
+                        mState[index] = BubbleDragRules.STATE_MOVE;
+                        if (mOnBubbleStateListener != null) {
+                            mOnBubbleStateListener.onMove(mDragId);
+                        }
+                    }
+                }
+                invalidate();
+                return true;
+            }
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL: {
+                int index = indexOf(mDragId);
+                mDragId = -1;
+                if (index < 0) {
+                    return false;
+                }
+                getParent().requestDisallowInterceptTouchEvent(false);
+                if (mState[index] == BubbleDragRules.STATE_MOVE
+                        && event.getAction() == MotionEvent.ACTION_UP
+                        && !BubbleDragRules.shouldRestore(mDistance, mRadius[index])) {
+                    startDismiss(index);
+                } else {
+                    startRestore(index);
+                }
+                invalidate();
+                return true;
+            }
+            default:
+                return mDragId >= 0;
+        }
+    }
+
+    /**
+     * 查找按下位置的气泡，多个气泡重叠时取圆心最近的
+     *
+     * @return 下标，没有时为 -1
+     */
+    private int findBubbleAt(float x, float y) {
+        int slot = mSpatialIndex.query(x, y);
+        return slot >= 0 ? mIndexOfSlot[slot] : -1;
+    }
+
+    /**
+     * 气泡位置、文本或状态变化后同步到网格索引
+     */
+    private void updateSpatialIndex(int index) {
+        int slot = mIds[index] & SLOT_MASK;
+        if (mState[index] == BubbleDragRules.STATE_DISMISS || mLabel[index] == null) {
+            mSpatialIndex.remove(slot);
+        } else {
+            float radius = mRadius[index];
+            mSpatialIndex.put(slot, mCenterX[index], mCenterY[index],
+                    BubbleDragRules.touchSlop(radius, BubbleDragRules.maxDistance(radius)));
+        }
+    }
+
+    private void startRestore(int index) {
+        mAnimFromX[index] = mCenterX[index];
+        mAnimFromY[index] = mCenterY[index];
+        mAnimStart[index] = AnimationUtils.currentAnimationTimeMillis();
+        scheduleAnimation();
+    }
+
+    private void startDismiss(int index) {
+        mState[index] = BubbleDragRules.STATE_DISMISS;
+        updateSpatialIndex(index);
+        //还没解码完时为 null，画替代动画
+        mExplosionFrames[index] = mExplosionFrameCache.peekFrames((int) (2 * mRadius[index]));
+        mAnimStart[index] = AnimationUtils.currentAnimationTimeMillis();
+        mAnimFraction[index] = 0f;
+        scheduleAnimation();
+        if (mOnBubbleStateListener != null) {
+            mOnBubbleStateListener.onDismiss(mIds[index]);
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        for (int i = 0; i < mCount; i++) {
+            if (mState[i] == BubbleDragRules.STATE_DISMISS) {
+                if (mAnimStart[i] != NO_ANIM) {
+                    drawExplosion(canvas, i, mAnimFraction[i]);
+                }
+            } else if (mLabel[i] != null) {
+                drawBubble(canvas, i);
+            }
+        }
+    }
+
+    private void advanceRestore(int index, float fraction) {
+        float f = mRestoreTable.getInterpolation(fraction);
+        mCenterX[index] = mAnimFromX[index] + (mHomeX[index] - mAnimFromX[index]) * f;
+        mCenterY[index] = mAnimFromY[index] + (mHomeY[index] - mAnimFromY[index]) * f;
+        if (fraction < 1f) {
+            updateSpatialIndex(index);
+            return;
+        }
+        mCenterX[index] = mHomeX[index];
+        mCenterY[index] = mHomeY[index];
+        mAnimStart[index] = NO_ANIM;
+        mState[index] = BubbleDragRules.STATE_DEFAULT;
+        updateSpatialIndex(index);
+        if (mOnBubbleStateListener != null) {
+            mOnBubbleStateListener.onRestore(mIds[index]);
+        }
+    }
+
+    private void drawBubble(Canvas canvas, int index) {
+        float centerX = mCenterX[index];
+        float centerY = mCenterY[index];
+        float radius = mRadius[index];
+        BubbleLabelCache.Label label = mLabel[index];
+        mBubblePaint.setColor(mColor[index]);
+        //画拖拽气泡
+        if (label.getShape() == BubbleDragRules.SHAPE_CIRCLE) {
+            canvas.drawCircle(centerX, centerY, radius, mBubblePaint);
+        } else {
+            float halfWidth = BubbleDragRules.halfWidth(radius, label.getShape());
+            mBubbleRectF.set(centerX - halfWidth, centerY - radius,
+                    centerX + halfWidth, centerY + radius);
+            canvas.drawRoundRect(mBubbleRectF, radius, radius, mBubblePaint);
+        }
+        //画黏质小圆和贝塞尔曲线
+        if (mIds[index] == mDragId && mState[index] == BubbleDragRules.STATE_DRAG
+                && mDistance > 0
+                && BubbleDragRules.isSticky(mDistance, BubbleDragRules.maxDistance(radius))) {
+            float homeX = mHomeX[index];
+            float homeY = mHomeY[index];
+            canvas.drawCircle(homeX, homeY, mCircleRadius, mBubblePaint);
+            mBezierNeck.calculate(homeX, homeY, mCircleRadius, centerX, centerY, radius,
+                    mDistance);
+            mBezierPath.reset();
+            mBezierPath.moveTo(mBezierNeck.getCircleStartX(), mBezierNeck.getCircleStartY());
+            mBezierPath.quadTo(mBezierNeck.getControlX(), mBezierNeck.getControlY(),
+                    mBezierNeck.getBubbleEndX(), mBezierNeck.getBubbleEndY());
+            mBezierPath.lineTo(mBezierNeck.getBubbleStartX(), mBezierNeck.getBubbleStartY());
+            mBezierPath.quadTo(mBezierNeck.getControlX(), mBezierNeck.getControlY(),
+                    mBezierNeck.getCircleEndX(), mBezierNeck.getCircleEndY());
+            mBezierPath.close();
+            canvas.drawPath(mBezierPath, mBubblePaint);
+        }
+        //画消息个数文本
+        canvas.drawText(label.getText(), centerX + label.getOffsetX(),
+                centerY + label.getOffsetY(), mTextPaint);
+    }
+
+    private void drawExplosion(Canvas canvas, int index, float fraction) {
+        Bitmap[] frames = mExplosionFrames[index];
+        float radius = mRadius[index];
+        if (frames == null) {
+            BitmapExplosionRenderer.drawFallback(canvas, mBubblePaint, mColor[index],
+                    fraction, mCenterX[index], mCenterY[index], radius);
+            return;
+        }
+        int frame = Math.min((int) (fraction * frames.length), frames.length - 1);
+        mExplosionRect.set((int) (mCenterX[index] - radius),
+                (int) (mCenterY[index] - radius),
+                (int) (mCenterX[index] + radius),
+                (int) (mCenterY[index] + radius));
+        canvas.drawBitmap(frames[frame], null, mExplosionRect, mExplosionPaint);
+    }
+
+    /**
+     * @return 下标，id 已失效时为 -1
+     */
+    private int indexOf(int id) {
+        if (id < 0) {
+            return -1;
+        }
+        int slot = id & SLOT_MASK;
+        if (slot >= mNextSlot || mSlotGeneration[slot] != id >>> SLOT_BITS) {
+            return -1;
+        }
+        return mIndexOfSlot[slot];
+    }
+
+    private void removeAt(int index) {
+        int slot = mIds[index] & SLOT_MASK;
+        mSpatialIndex.remove(slot);
+        int last = --mCount;
+        if (index != last) {
+            mIds[index] = mIds[last];
+            mIndexOfSlot[mIds[index] & SLOT_MASK] = index;
+            mCenterX[index] = mCenterX[last];
+            mCenterY[index] = mCenterY[last];
+            mHomeX[index] = mHomeX[last];
+            mHomeY[index] = mHomeY[last];
+            mRadius[index] = mRadius[last];
+            mColor[index] = mColor[last];
+            mLabel[index] = mLabel[last];
+            mState[index] = mState[last];
+            mAnimStart[index] = mAnimStart[last];
+            mAnimFraction[index] = mAnimFraction[last];
+            mAnimFromX[index] = mAnimFromX[last];
+            mAnimFromY[index] = mAnimFromY[last];
+            mExplosionFrames[index] = mExplosionFrames[last];
+        }
+        mLabel[last] = null;
+        mExplosionFrames[last] = null;
+        mIndexOfSlot[slot] = -1;
+        //换代后旧id失效，槽位才能复用
+        mSlotGeneration[slot] = (mSlotGeneration[slot] + 1) & MAX_GENERATION;
+        if (mFreeSlotCount == mFreeSlots.length) {
+            mFreeSlots = grow(mFreeSlots, mFreeSlotCount + 1);
+        }
+        mFreeSlots[mFreeSlotCount++] = slot;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= mIds.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, mIds.length * 2);
+        mIds = grow(mIds, newCapacity);
+        mCenterX = grow(mCenterX, newCapacity);
+        mCenterY = grow(mCenterY, newCapacity);
+        mHomeX = grow(mHomeX, newCapacity);
+        mHomeY = grow(mHomeY, newCapacity);
+        mRadius = grow(mRadius, newCapacity);
+        mColor = grow(mColor, newCapacity);
+        mState = grow(mState, newCapacity);
+        mAnimFraction = grow(mAnimFraction, newCapacity);
+        mAnimFromX = grow(mAnimFromX, newCapacity);
+        mAnimFromY = grow(mAnimFromY, newCapacity);
+        long[] animStart = new long[newCapacity];
+        System.arraycopy(mAnimStart, 0, animStart, 0, mCount);
+        mAnimStart = animStart;
+        BubbleLabelCache.Label[] labels = new BubbleLabelCache.Label[newCapacity];
+        System.arraycopy(mLabel, 0, labels, 0, mCount);
+        mLabel = labels;
+        Bitmap[][] frames = new Bitmap[newCapacity][];
+        System.arraycopy(mExplosionFrames, 0, frames, 0, mCount);
+        mExplosionFrames = frames;
+    }
+
+    private static int[] grow(int[] array, int minCapacity) {
+        int[] grown = new int[Math.max(minCapacity, array.length * 2)];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+
+    private static float[] grow(float[] array, int minCapacity) {
+        float[] grown = new float[Math.max(minCapacity, array.length * 2)];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+
+    public interface OnBubbleStateListener {
+        /**
+         * 拖拽气泡
+         */
+        void onDrag(int id);
+
+        /**
+         * 移动气泡
+         */
+        void onMove(int id);
+
+        /**
+         * 恢复气泡
+         */
+        void onRestore(int id);
+
+        /**
+         * 气泡消失
+         */
+        void onDismiss(int id);
+    }
+}
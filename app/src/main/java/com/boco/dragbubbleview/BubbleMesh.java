@@ -0,0 +1,164 @@
+package com.boco.dragbubbleview;
+
+/**
+ * 把黏质小球和贝塞尔曲线展开成一组三角形
+ * <p>
+ * 圆和曲线的分段数按允许的最大误差(屏幕像素)计算：半径越大、曲线越弯，分段越多。
+ * 顶点按 (x, y) 依次存放，每三个顶点一个三角形，可以用一次 drawVertices 画出。
+ * 缓冲区在顶点数增加时扩容，之后每帧复用。不依赖 Android。
+ */
+final class BubbleMesh {
+
+    /**
+     * 默认允许的最大误差(px)
+     */
+    static final float DEFAULT_TOLERANCE = 0.25f;
+
+    private static final int MIN_CIRCLE_SEGMENTS = 8;
+    private static final int MAX_CIRCLE_SEGMENTS = 96;
+    private static final int MAX_CURVE_SEGMENTS = 32;
+
+    private float mTolerance = DEFAULT_TOLERANCE;
+    private float[] mVertices = new float[0];
+    private int mVertexCount;
+    private int mCircleSegments;
+    private int mCurveSegments;
+
+    void setTolerance(float tolerance) {
+        mTolerance = Math.max(tolerance, 0.01f);
+    }
+
+    /**
+     * 生成黏质小球和贝塞尔曲线的三角形
+     *
+     * @param neck 已经计算好的贝塞尔曲线
+     */
+    void build(float circleX, float circleY, float circleRadius, BezierNeck neck) {
+        mCircleSegments = circleSegments(circleRadius, mTolerance);
+        mCurveSegments = curveSegments(neck, mTolerance);
+        ensureCapacity(3 * (mCircleSegments + 2 * mCurveSegments));
+        mVertexCount = 0;
+
+        //黏质小球：以圆心为中心的扇形，每段把半径向量旋转一次，避免逐点计算三角函数
+        double step = 2 * Math.PI / mCircleSegments;
+        float cosStep = (float) Math.cos(step);
+        float sinStep = (float) Math.sin(step);
+        float dx = circleRadius;
+        float dy = 0;
+        for (int i = 1; i <= mCircleSegments; i++) {
+            float nextDx;
+            float nextDy;
+            if (i == mCircleSegments) {
+                //最后一点回到起点，保证闭合
+                nextDx = circleRadius;
+                nextDy = 0;
+            } else {
+                nextDx = dx * cosStep - dy * sinStep;
+                nextDy = dx * sinStep + dy * cosStep;
+            }
+            addTriangle(circleX, circleY, circleX + dx, circleY + dy,
+                    circleX + nextDx, circleY + nextDy);
+            dx = nextDx;
+            dy = nextDy;
+        }
+
+        //贝塞尔曲线：两条曲线上对应的点连成梯子，每一格两个三角形
+        float controlX = neck.getControlX();
+        float controlY = neck.getControlY();
+        float aX = neck.getCircleStartX();
+        float aY = neck.getCircleStartY();
+        float bX = neck.getCircleEndX();
+        float bY = neck.getCircleEndY();
+        for (int i = 1; i <= mCurveSegments; i++) {
+            float t = (float) i / mCurveSegments;
+            float u = 1 - t;
+            //一条从黏质小球到气泡，另一条反向取点
+            float nextAX = u * u * neck.getCircleStartX() + 2 * u * t * controlX
+                    + t * t * neck.getBubbleEndX();
+            float nextAY = u * u * neck.getCircleStartY() + 2 * u * t * controlY
+                    + t * t * neck.getBubbleEndY();
+            float nextBX = u * u * neck.getCircleEndX() + 2 * u * t * controlX
+                    + t * t * neck.getBubbleStartX();
+            float nextBY = u * u * neck.getCircleEndY() + 2 * u * t * controlY
+                    + t * t * neck.getBubbleStartY();
+            addTriangle(aX, aY, bX, bY, nextAX, nextAY);
+            addTriangle(bX, bY, nextBX, nextBY, nextAX, nextAY);
+            aX = nextAX;
+            aY = nextAY;
+            bX = nextBX;
+            bY = nextBY;
+        }
+    }
+
+    private void addTriangle(float x1, float y1, float x2, float y2, float x3, float y3) {
+        int offset = mVertexCount * 2;
+        float[] vertices = mVertices;
+        vertices[offset] = x1;
+        vertices[offset + 1] = y1;
+        vertices[offset + 2] = x2;
+        vertices[offset + 3] = y2;
+        vertices[offset + 4] = x3;
+        vertices[offset + 5] = y3;
+        mVertexCount += 3;
+    }
+
+    private void ensureCapacity(int vertexCount) {
+        if (mVertices.length < vertexCount * 2) {
+            mVertices = new float[vertexCount * 2];
+        }
+    }
+
+    /**
+     * 误差不超过 tolerance 的圆的分段数
+     * <p>
+     * 弦到圆弧的最大距离为 r(1 - cos(θ/2))。
+     */
+    static int circleSegments(float radius, float tolerance) {
+        if (radius <= tolerance) {
+            return MIN_CIRCLE_SEGMENTS;
+        }
+        double halfAngle = Math.acos(1 - tolerance / radius);
+        int segments = (int) Math.ceil(Math.PI / halfAngle);
+        return Math.max(MIN_CIRCLE_SEGMENTS, Math.min(MAX_CIRCLE_SEGMENTS, segments));
+    }
+
+    /**
+     * 误差不超过 tolerance 的二阶贝塞尔曲线的分段数
+     * <p>
+     * 均匀分成 n 段时折线到曲线的最大距离不超过 |P0 - 2P1 + P2| / (8n²)，
+     * 两条曲线取较大的一个。
+     */
+    static int curveSegments(BezierNeck neck, float tolerance) {
+        float first = secondDifference(neck.getCircleStartX(), neck.getCircleStartY(),
+                neck.getControlX(), neck.getControlY(), neck.getBubbleEndX(), neck.getBubbleEndY());
+        float second = secondDifference(neck.getBubbleStartX(), neck.getBubbleStartY(),
+                neck.getControlX(), neck.getControlY(), neck.getCircleEndX(), neck.getCircleEndY());
+        float dd = Math.max(first, second);
+        int segments = (int) Math.ceil(Math.sqrt(dd / (8 * tolerance)));
+        return Math.max(1, Math.min(MAX_CURVE_SEGMENTS, segments));
+    }
+
+    private static float secondDifference(float x0, float y0, float x1, float y1,
+                                          float x2, float y2) {
+        return (float) Math.hypot(x0 - 2 * x1 + x2, y0 - 2 * y1 + y2);
+    }
+
+    /**
+     * 顶点坐标，只有前 {@link #getVertexCount()} * 2 个有效
+     */
+    float[] getVertices() {
+        return mVertices;
+    }
+
+    int getVertexCount() {
+        return mVertexCount;
+    }
+
+    int getCircleSegments() {
+        return mCircleSegments;
+    }
+
+    int getCurveSegments() {
+        return mCurveSegments;
+    }
+}
@@ -0,0 +1,140 @@
+package com.boco.dragbubbleview;
+
+/**
+ * 气泡的帧耗时和卡顿统计
+ * <p>
+ * 记录每个触摸事件到画出来的延迟、每次 onDraw 的耗时、复原和消失动画中掉的帧，
+ * 以及每次手势(按下到动画结束)的分配次数。所有数据都放在固定大小的数组里，
+ * 记录时不创建对象，需要上报时用 {@link #snapshot()} 导出。
+ */
+final class BubbleMetrics {
+
+    /**
+     * 最多记录的未绘制触摸事件，超出的不计延迟
+     */
+    private static final int MAX_PENDING_TOUCHES = 32;
+
+    private final LatencyHistogram mTouchLatency = new LatencyHistogram();
+    private final LatencyHistogram mDrawTime = new LatencyHistogram();
+    private final long[] mPendingTouchTimes = new long[MAX_PENDING_TOUCHES];
+    private int mPendingTouchCount;
+
+    /**
+     * 一帧的期望时长(ms)
+     */
+    private float mFrameIntervalMillis = 1000f / 60;
+    private long mAnimationFrameCount;
+    private long mDroppedFrameCount;
+
+    private boolean mInGesture;
+    private long mGestureStartAllocations;
+    private long mGestureCount;
+    private long mLastGestureAllocations;
+    private long mMaxGestureAllocations;
+    private long mTotalGestureAllocations;
+
+    /**
+     * @param refreshRate 屏幕刷新率(Hz)，用来判断掉帧
+     */
+    void setRefreshRate(float refreshRate) {
+        if (refreshRate > 0) {
+            mFrameIntervalMillis = 1000f / refreshRate;
+        }
+    }
+
+    /**
+     * 收到一个触摸事件
+     *
+     * @param eventTimeMillis 事件时间，和 {@link #onDraw(long, long)} 使用同一个时钟
+     */
+    void onTouchEvent(long eventTimeMillis) {
+        if (mPendingTouchCount < MAX_PENDING_TOUCHES) {
+            mPendingTouchTimes[mPendingTouchCount++] = eventTimeMillis;
+        }
+    }
+
+    /**
+     * 一次 onDraw 结束，之前收到的触摸事件都已画出
+     *
+     * @param nowMillis 当前时间
+     * @param drawNanos 本次 onDraw 的耗时
+     */
+    void onDraw(long nowMillis, long drawNanos) {
+        mDrawTime.record(drawNanos);
+        for (int i = 0; i < mPendingTouchCount; i++) {
+            mTouchLatency.record((nowMillis - mPendingTouchTimes[i]) * 1000000L);
+        }
+        mPendingTouchCount = 0;
+    }
+
+    /**
+     * 复原或消失动画推进了一帧
+     *
+     * @param deltaMillis 距上一帧的时间，动画的第一帧传 0
+     */
+    void onAnimationFrame(long deltaMillis) {
+        mAnimationFrameCount++;
+        int frames = Math.round(deltaMillis / mFrameIntervalMillis);
+        if (frames > 1) {
+            mDroppedFrameCount += frames - 1;
+        }
+    }
+
+    /**
+     * @param allocations 当前线程累计的分配次数，不支持统计时传 0
+     */
+    void onGestureStart(long allocations) {
+        mInGesture = true;
+        mGestureStartAllocations = allocations;
+    }
+
+    /**
+     * 手势结束，没有对应的开始时忽略
+     */
+    void onGestureEnd(long allocations) {
+        if (!mInGesture) {
+            return;
+        }
+        mInGesture = false;
+        mGestureCount++;
+        mLastGestureAllocations = Math.max(0, allocations - mGestureStartAllocations);
+        mMaxGestureAllocations = Math.max(mMaxGestureAllocations, mLastGestureAllocations);
+        mTotalGestureAllocations += mLastGestureAllocations;
+    }
+
+    BubbleMetricsSnapshot snapshot() {
+        return new BubbleMetricsSnapshot(
+                mTouchLatency.getCount(),
+                toMillis(mTouchLatency.getPercentileNanos(50)),
+                toMillis(mTouchLatency.getPercentileNanos(95)),
+                toMillis(mTouchLatency.getPercentileNanos(99)),
+                mDrawTime.getCount(),
+                toMillis(mDrawTime.getPercentileNanos(50)),
+                toMillis(mDrawTime.getPercentileNanos(95)),
+                toMillis(mDrawTime.getPercentileNanos(99)),
+                toMillis(mDrawTime.getMaxNanos()),
+                mAnimationFrameCount,
+                mDroppedFrameCount,
+                mGestureCount,
+                mLastGestureAllocations,
+                mMaxGestureAllocations,
+                mTotalGestureAllocations);
+    }
+
+    void reset() {
+        mTouchLatency.reset();
+        mDrawTime.reset();
+        mPendingTouchCount = 0;
+        mAnimationFrameCount = 0;
+        mDroppedFrameCount = 0;
+        mInGesture = false;
+        mGestureCount = 0;
+        mLastGestureAllocations = 0;
+        mMaxGestureAllocations = 0;
+        mTotalGestureAllocations = 0;
+    }
+
+    private static float toMillis(long nanos) {
+        return nanos / 1000000f;
+    }
+}
@@ -0,0 +1,149 @@
+package com.boco.dragbubbleview;
+
+/**
+ * 气泡帧耗时和卡顿统计的快照，时间单位都是毫秒
+ * <p>
+ * 百分位按 0.1ms 分桶统计，分配次数只在运行时支持线程分配计数时有值，否则为 0。
+ */
+public final class BubbleMetricsSnapshot {
+
+    private final long mTouchCount;
+    private final float mTouchLatencyP50;
+    private final float mTouchLatencyP95;
+    private final float mTouchLatencyP99;
+    private final long mDrawCount;
+    private final float mDrawTimeP50;
+    private final float mDrawTimeP95;
+    private final float mDrawTimeP99;
+    private final float mDrawTimeMax;
+    private final long mAnimationFrameCount;
+    private final long mDroppedFrameCount;
+    private final long mGestureCount;
+    private final long mLastGestureAllocations;
+    private final long mMaxGestureAllocations;
+    private final long mTotalGestureAllocations;
+
+    BubbleMetricsSnapshot(long touchCount, float touchLatencyP50, float touchLatencyP95,
+                          float touchLatencyP99, long drawCount, float drawTimeP50,
+                          float drawTimeP95, float drawTimeP99, float drawTimeMax,
+                          long animationFrameCount, long droppedFrameCount, long gestureCount,
+                          long lastGestureAllocations, long maxGestureAllocations,
+                          long totalGestureAllocations) {
+        mTouchCount = touchCount;
+        mTouchLatencyP50 = touchLatencyP50;
+        mTouchLatencyP95 = touchLatencyP95;
+        mTouchLatencyP99 = touchLatencyP99;
+        mDrawCount = drawCount;
+        mDrawTimeP50 = drawTimeP50;
+        mDrawTimeP95 = drawTimeP95;
+        mDrawTimeP99 = drawTimeP99;
+        mDrawTimeMax = drawTimeMax;
+        mAnimationFrameCount = animationFrameCount;
+        mDroppedFrameCount = droppedFrameCount;
+        mGestureCount = gestureCount;
+        mLastGestureAllocations = lastGestureAllocations;
+        mMaxGestureAllocations = maxGestureAllocations;
+        mTotalGestureAllocations = totalGestureAllocations;
+    }
+
+    /**
+     * 统计了延迟的触摸事件个数
+     */
+    public long getTouchCount() {
+        return mTouchCount;
+    }
+
+    /**
+     * 触摸事件到画出来的延迟
+     */
+    public float getTouchLatencyP50() {
+        return mTouchLatencyP50;
+    }
+
+    public float getTouchLatencyP95() {
+        return mTouchLatencyP95;
+    }
+
+    public float getTouchLatencyP99() {
+        return mTouchLatencyP99;
+    }
+
+    /**
+     * onDraw 次数
+     */
+    public long getDrawCount() {
+        return mDrawCount;
+    }
+
+    /**
+     * onDraw 耗时
+     */
+    public float getDrawTimeP50() {
+        return mDrawTimeP50;
+    }
+
+    public float getDrawTimeP95() {
+        return mDrawTimeP95;
+    }
+
+    public float getDrawTimeP99() {
+        return mDrawTimeP99;
+    }
+
+    public float getDrawTimeMax() {
+        return mDrawTimeMax;
+    }
+
+    /**
+     * 复原和消失动画的帧数
+     */
+    public long getAnimationFrameCount() {
+        return mAnimationFrameCount;
+    }
+
+    /**
+     * 复原和消失动画中掉的帧数
+     */
+    public long getDroppedFrameCount() {
+        return mDroppedFrameCount;
+    }
+
+    /**
+     * 完成的手势(按下到动画结束)个数
+     */
+    public long getGestureCount() {
+        return mGestureCount;
+    }
+
+    /**
+     * 最近一次手势中的分配次数
+     */
+    public long getLastGestureAllocations() {
+        return mLastGestureAllocations;
+    }
+
+    public long getMaxGestureAllocations() {
+        return mMaxGestureAllocations;
+    }
+
+    public long getTotalGestureAllocations() {
+        return mTotalGestureAllocations;
+    }
+
+    @Override
+    public String toString() {
+        return "BubbleMetricsSnapshot{"
+                + "touch=" + mTouchCount
+                + " p50/p95/p99=" + mTouchLatencyP50 + "/" + mTouchLatencyP95 + "/"
+                + mTouchLatencyP99 + "ms"
+                + ", draw=" + mDrawCount
+                + " p50/p95/p99/max=" + mDrawTimeP50 + "/" + mDrawTimeP95 + "/" + mDrawTimeP99
+                + "/" + mDrawTimeMax + "ms"
+                + ", animationFrames=" + mAnimationFrameCount
+                + ", dropped=" + mDroppedFrameCount
+                + ", gestures=" + mGestureCount
+                + ", allocations last/max/total=" + mLastGestureAllocations + "/"
+                + mMaxGestureAllocations + "/" + mTotalGestureAllocations
+                + '}';
+    }
+}
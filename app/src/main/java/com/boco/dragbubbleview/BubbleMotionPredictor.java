@@ -0,0 +1,30 @@
+package com.boco.dragbubbleview;
+
+/**
+ * 拖拽位置预测器
+ * <p>
+ * 输入手指的触摸采样(包括 MotionEvent 的历史采样)，预测某一时刻手指所在的位置，
+ * 用来抵消触摸到显示之间的延迟。实现不能在 addSample 和 predict 中创建对象。
+ */
+public interface BubbleMotionPredictor {
+
+    /**
+     * 新的手势开始，丢弃之前的采样
+     */
+    void reset();
+
+    /**
+     * 添加一个触摸采样，时间需单调递增
+     *
+     * @param timeMillis 采样时间，与 MotionEvent#getEventTime() 同一时间基准
+     */
+    void addSample(long timeMillis, float x, float y);
+
+    /**
+     * 预测指定时刻的位置
+     *
+     * @param out 长度至少为 2，写入预测的 x 和 y
+     * @return 没有采样时返回 false
+     */
+    boolean predict(long timeMillis, float[] out);
+}
@@ -0,0 +1,130 @@
+package com.boco.dragbubbleview;
+
+/**
+ * 按帧合并拖拽中的移动采样
+ * <p>
+ * 每个 ACTION_MOVE 只记录最后的位置并喂给预测器，同一帧内只在第一次记录时要求调用方安排回调，
+ * 帧开始时取出一次位置(有预测器时取预测位置)。不依赖 Android，只在主线程使用。
+ */
+final class BubbleMoveCoalescer {
+
+    private BubbleMotionPredictor mPredictor;
+    /**
+     * 是否有尚未处理的移动
+     */
+    private boolean mPending;
+    /**
+     * 最后一个移动采样
+     */
+    private float mPendingX;
+    private float mPendingY;
+    private int mEventCount;
+    private int mApplyCount;
+
+    /**
+     * 为 null 时直接使用最后一个采样
+     */
+    void setPredictor(BubbleMotionPredictor predictor) {
+        mPredictor = predictor;
+    }
+
+    /**
+     * 手指按下，清掉上一次拖拽的采样
+     */
+    void start(long timeMillis, float x, float y) {
+        mPending = false;
+        if (mPredictor != null) {
+            mPredictor.reset();
+            mPredictor.addSample(timeMillis, x, y);
+        }
+    }
+
+    /**
+     * 记录一个批量事件中的历史采样，只用于预测，不计入事件数
+     */
+    void addHistoricalSample(long timeMillis, float x, float y) {
+        if (mPredictor != null) {
+            mPredictor.addSample(timeMillis, x, y);
+        }
+    }
+
+    /**
+     * 记录一个移动事件
+     *
+     * @return 本帧第一次记录、需要调用方安排一次 {@link #apply(long, float[])} 时返回 true
+     */
+    boolean queue(long timeMillis, float x, float y) {
+        mEventCount++;
+        mPendingX = x;
+        mPendingY = y;
+        if (mPredictor != null) {
+            mPredictor.addSample(timeMillis, x, y);
+        }
+        if (mPending) {
+            return false;
+        }
+        mPending = true;
+        return true;
+    }
+
+    /**
+     * 帧开始时取出要应用的位置
+     *
+     * @param frameTimeMillis 预测的目标时刻
+     * @param out             写入 x、y
+     * @return 没有待处理的移动时返回 false
+     */
+    boolean apply(long frameTimeMillis, float[] out) {
+        if (!mPending) {
+            return false;
+        }
+        mPending = false;
+        mApplyCount++;
+        if (mPredictor == null || !mPredictor.predict(frameTimeMillis, out)) {
+            out[0] = mPendingX;
+            out[1] = mPendingY;
+        }
+        return true;
+    }
+
+    /**
+     * 松手时丢弃待处理的移动，由调用方直接应用松手位置
+     *
+     * @return 有待处理的移动时返回 true，计为一次应用
+     */
+    boolean flush() {
+        if (!mPending) {
+            return false;
+        }
+        mPending = false;
+        mApplyCount++;
+        return true;
+    }
+
+    /**
+     * 未合并时每个移动事件都直接应用
+     */
+    void onDirectMove() {
+        mEventCount++;
+        mApplyCount++;
+    }
+
+    /**
+     * 丢弃待处理的移动，不计入应用次数
+     */
+    void cancel() {
+        mPending = false;
+    }
+
+    boolean isPending() {
+        return mPending;
+    }
+
+    int getEventCount() {
+        return mEventCount;
+    }
+
+    int getApplyCount() {
+        return mApplyCount;
+    }
+}
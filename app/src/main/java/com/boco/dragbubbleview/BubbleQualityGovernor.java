@@ -0,0 +1,163 @@
+package com.boco.dragbubbleview;
+
+/**
+ * 按最近的 onDraw 耗时逐级降低或恢复绘制质量
+ * <p>
+ * 只统计拖拽和动画中的帧。每攒满一个窗口判断一次：慢帧(超过帧预算的一半)
+ * 达到窗口的四分之一时降一级；连续几个窗口都很快(低于帧预算的四分之一)时升一级。
+ * 每次变化后重新开始计数，避免在两级之间来回跳。不依赖 Android，只在主线程使用。
+ */
+public final class BubbleQualityGovernor {
+
+    /**
+     * 完整质量
+     */
+    public static final int LEVEL_FULL = 0;
+    /**
+     * 拖拽和动画中关闭抗锯齿
+     */
+    public static final int LEVEL_NO_ANTI_ALIAS = 1;
+    /**
+     * 贝塞尔曲线简化成直线
+     */
+    public static final int LEVEL_SIMPLE_NECK = 2;
+    /**
+     * 爆炸效果减半：隔帧播放图片且不过滤，粒子数减半
+     */
+    public static final int LEVEL_REDUCED_EXPLOSION = 3;
+    /**
+     * 不画爆炸效果
+     */
+    public static final int LEVEL_NO_EXPLOSION = 4;
+
+    static final int DEFAULT_WINDOW = 30;
+    /**
+     * 升级前需要连续几个快窗口
+     */
+    static final int DEFAULT_RECOVERY_WINDOWS = 3;
+
+    public interface OnQualityChangeListener {
+        /**
+         * @param oldLevel 变化前的级别
+         * @param newLevel 变化后的级别，LEVEL_* 之一
+         */
+        void onQualityChanged(int oldLevel, int newLevel);
+    }
+
+    private final int mWindow;
+    private final int mRecoveryWindows;
+    private long mSlowNanos;
+    private long mFastNanos;
+    private int mLevel = LEVEL_FULL;
+    private int mMaxLevel = LEVEL_NO_EXPLOSION;
+
+    private int mFrames;
+    private int mSlowFrames;
+    private boolean mWindowFast = true;
+    private int mFastWindows;
+    private int mTransitionCount;
+    private OnQualityChangeListener mListener;
+    /**
+     * 使用方应用级别的回调，和公开的监听分开，不会被 {@link #setOnQualityChangeListener} 覆盖
+     */
+    private OnQualityChangeListener mApplier;
+
+    BubbleQualityGovernor(float refreshRate) {
+        this(refreshRate, DEFAULT_WINDOW, DEFAULT_RECOVERY_WINDOWS);
+    }
+
+    BubbleQualityGovernor(float refreshRate, int window, int recoveryWindows) {
+        mWindow = window;
+        mRecoveryWindows = recoveryWindows;
+        setRefreshRate(refreshRate);
+    }
+
+    void setRefreshRate(float refreshRate) {
+        long frameNanos = (long) (1e9 / (refreshRate > 0 ? refreshRate : 60));
+        mSlowNanos = frameNanos / 2;
+        mFastNanos = frameNanos / 4;
+    }
+
+    /**
+     * 记录一帧的 onDraw 耗时
+     *
+     * @return 级别发生变化时返回 true
+     */
+    boolean onFrame(long drawNanos) {
+        mFrames++;
+        if (drawNanos > mSlowNanos) {
+            mSlowFrames++;
+        }
+        if (drawNanos > mFastNanos) {
+            mWindowFast = false;
+        }
+        if (mFrames < mWindow) {
+            return false;
+        }
+        int level = mLevel;
+        if (mSlowFrames * 4 >= mWindow) {
+            mFastWindows = 0;
+            level = Math.min(mLevel + 1, mMaxLevel);
+        } else if (mWindowFast && ++mFastWindows >= mRecoveryWindows) {
+            mFastWindows = 0;
+            level = Math.max(mLevel - 1, LEVEL_FULL);
+        } else if (!mWindowFast) {
+            mFastWindows = 0;
+        }
+        mFrames = 0;
+        mSlowFrames = 0;
+        mWindowFast = true;
+        return setLevelInternal(level);
+    }
+
+    private boolean setLevelInternal(int level) {
+        if (level == mLevel) {
+            return false;
+        }
+        int oldLevel = mLevel;
+        mLevel = level;
+        mTransitionCount++;
+        if (mApplier != null) {
+            mApplier.onQualityChanged(oldLevel, level);
+        }
+        if (mListener != null) {
+            mListener.onQualityChanged(oldLevel, level);
+        }
+        return true;
+    }
+
+    /**
+     * 限制能降到的最低质量，例如不希望去掉爆炸效果时设为 {@link #LEVEL_REDUCED_EXPLOSION}
+     */
+    public void setMaxLevel(int maxLevel) {
+        mMaxLevel = Math.max(LEVEL_FULL, Math.min(maxLevel, LEVEL_NO_EXPLOSION));
+        if (mLevel > mMaxLevel) {
+            setLevelInternal(mMaxLevel);
+        }
+    }
+
+    public void setOnQualityChangeListener(OnQualityChangeListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * 设置把级别应用到绘制的回调，任何原因引起的级别变化都会先回调它
+     */
+    void setLevelApplier(OnQualityChangeListener applier) {
+        mApplier = applier;
+    }
+
+    /**
+     * 当前级别，LEVEL_* 之一
+     */
+    public int getLevel() {
+        return mLevel;
+    }
+
+    /**
+     * 累计的级别变化次数
+     */
+    public int getTransitionCount() {
+        return mTransitionCount;
+    }
+}
@@ -0,0 +1,148 @@
+package com.boco.dragbubbleview;
+
+/**
+ * 单个气泡一帧的绘制逻辑
+ * <p>
+ * 根据 {@link BubbleSimulation} 的当前状态画出气泡、黏质小球、贝塞尔曲线、文本和爆炸动画，
+ * 不依赖 Android，绘制时不创建对象。
+ */
+final class BubbleRenderer {
+
+    private int mBubbleColor;
+    /**
+     * 气泡文本，为 null 时什么都不画
+     */
+    private String mText;
+    private int mShape;
+    private float mTextOffsetX;
+    private float mTextOffsetY;
+    /**
+     * 为 null 时用路径画黏质小球和贝塞尔曲线
+     */
+    private BubbleMesh mMesh;
+    /**
+     * 为 true 时贝塞尔曲线画成直线
+     */
+    private boolean mSimplifiedNeck;
+    private boolean mExplosionEnabled = true;
+
+    void setBubbleColor(int bubbleColor) {
+        mBubbleColor = bubbleColor;
+    }
+
+    /**
+     * 设置气泡文本
+     *
+     * @param text    为 null 时不画气泡
+     * @param shape   气泡形状，见 {@link BubbleDragRules#shapeOf(int)}
+     * @param offsetX drawText 的 x 相对气泡圆心的偏移
+     * @param offsetY drawText 的基线相对气泡圆心的偏移
+     */
+    void setLabel(String text, int shape, float offsetX, float offsetY) {
+        mText = text;
+        mShape = shape;
+        mTextOffsetX = offsetX;
+        mTextOffsetY = offsetY;
+    }
+
+    /**
+     * 打开后黏质小球和贝塞尔曲线展开成三角形一次画出，画布不支持时仍用路径
+     */
+    void setMeshEnabled(boolean enabled) {
+        if (!enabled) {
+            mMesh = null;
+        } else if (mMesh == null) {
+            mMesh = new BubbleMesh();
+        }
+    }
+
+    /**
+     * 打开后用路径画的贝塞尔曲线简化成直线，网格方式不受影响
+     */
+    void setSimplifiedNeck(boolean simplified) {
+        mSimplifiedNeck = simplified;
+    }
+
+    /**
+     * 关闭后消失时不画爆炸效果
+     */
+    void setExplosionEnabled(boolean enabled) {
+        mExplosionEnabled = enabled;
+    }
+
+    /**
+     * @param tolerance 展开成三角形时允许的最大误差(px)
+     */
+    void setMeshTolerance(float tolerance) {
+        if (mMesh != null) {
+            mMesh.setTolerance(tolerance);
+        }
+    }
+
+    void draw(BubbleCanvas canvas, BubbleSimulation simulation) {
+        if (mText == null) {
+            return;
+        }
+        float bubbleX = simulation.getBubbleX();
+        float bubbleY = simulation.getBubbleY();
+        float bubbleRadius = simulation.getBubbleRadius();
+        boolean dismissed = simulation.getState() == BubbleDragRules.STATE_DISMISS;
+        //画拖拽气泡
+        if (!dismissed) {
+            if (mShape == BubbleDragRules.SHAPE_CIRCLE) {
+                canvas.drawCircle(bubbleX, bubbleY, bubbleRadius, mBubbleColor);
+            } else {
+                float halfWidth = BubbleDragRules.halfWidth(bubbleRadius, mShape);
+                canvas.drawRoundRect(bubbleX - halfWidth, bubbleY - bubbleRadius,
+                        bubbleX + halfWidth, bubbleY + bubbleRadius, bubbleRadius, mBubbleColor);
+            }
+        }
+        if (simulation.isNeckVisible()) {
+            if (mMesh != null && canvas.supportsMesh()) {
+                mMesh.build(simulation.getCircleX(), simulation.getCircleY(),
+                        simulation.getCircleRadius(), simulation.computeNeck());
+                canvas.drawMesh(mMesh.getVertices(), mMesh.getVertexCount(), mBubbleColor);
+            } else {
+                //画黏质小圆
+                canvas.drawCircle(simulation.getCircleX(), simulation.getCircleY(),
+                        simulation.getCircleRadius(), mBubbleColor);
+                if (mSimplifiedNeck) {
+                    drawStraightNeck(canvas, simulation.computeNeck(), mBubbleColor);
+                } else {
+                    drawNeck(canvas, simulation.computeNeck(), mBubbleColor);
+                }
+            }
+        }
+        //画消息个数文本
+        if (!dismissed) {
+            canvas.drawText(mText, bubbleX + mTextOffsetX, bubbleY + mTextOffsetY);
+        }
+        if (mExplosionEnabled && simulation.isExploding()) {
+            canvas.drawExplosion(simulation.getDismissProgress());
+        }
+    }
+
+    /**
+     * 用二阶贝塞尔曲线连接黏质小球和拖拽气泡
+     */
+    static void drawNeck(BubbleCanvas canvas, BezierNeck neck, int color) {
+        canvas.moveTo(neck.getCircleStartX(), neck.getCircleStartY());
+        canvas.quadTo(neck.getControlX(), neck.getControlY(),
+                neck.getBubbleEndX(), neck.getBubbleEndY());
+        canvas.lineTo(neck.getBubbleStartX(), neck.getBubbleStartY());
+        canvas.quadTo(neck.getControlX(), neck.getControlY(),
+                neck.getCircleEndX(), neck.getCircleEndY());
+        canvas.fillPath(color);
+    }
+
+    /**
+     * 用直线连接两圆的切点，省掉曲线的细分
+     */
+    static void drawStraightNeck(BubbleCanvas canvas, BezierNeck neck, int color) {
+        canvas.moveTo(neck.getCircleStartX(), neck.getCircleStartY());
+        canvas.lineTo(neck.getBubbleEndX(), neck.getBubbleEndY());
+        canvas.lineTo(neck.getBubbleStartX(), neck.getBubbleStartY());
+        canvas.lineTo(neck.getCircleEndX(), neck.getCircleEndY());
+        canvas.fillPath(color);
+    }
+}
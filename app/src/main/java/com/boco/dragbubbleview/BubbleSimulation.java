@@ -0,0 +1,347 @@
+package com.boco.dragbubbleview;
+
+/**
+ * 单个气泡拖拽过程的纯 Java 模拟
+ * <p>
+ * 包含状态机、距离阈值、黏质小球半径、贝塞尔曲线以及复原和消失动画，不依赖 Android，
+ * 输入输出都是基本类型，运行中不创建对象。动画按固定步长推进，
+ * 同样的输入序列无论按什么帧间隔调用 {@link #step(float)} 都得到同样的结果。
+ */
+final class BubbleSimulation {
+
+    static final int EVENT_NONE = 0;
+    /**
+     * 在黏连范围内拖拽
+     */
+    static final int EVENT_DRAG = 1;
+    /**
+     * 超出黏连范围，进入移动状态
+     */
+    static final int EVENT_MOVE = 2;
+    /**
+     * 复原动画结束
+     */
+    static final int EVENT_RESTORE = 3;
+    /**
+     * 松手后气泡消失，爆炸动画开始
+     */
+    static final int EVENT_DISMISS = 4;
+
+    /**
+     * 动画推进的固定步长(ms)
+     */
+    static final float STEP_MILLIS = 4f;
+    /**
+     * 一次 step 最多追赶的步数，避免长时间卡顿后一次算太多
+     */
+    private static final int MAX_STEPS = 64;
+    private static final float DEFAULT_DURATION = 500;
+
+    private static final int ANIM_NONE = 0;
+    private static final int ANIM_RESTORE = 1;
+    private static final int ANIM_DISMISS = 2;
+
+    /**
+     * 手指拖拽气泡半径
+     */
+    private float mBubbleRadius;
+    /**
+     * 可拖拽的最大间距
+     */
+    private float mMaxDistance;
+
+    /**
+     * 黏质小球圆心坐标和半径
+     */
+    private float mCircleX;
+    private float mCircleY;
+    private float mCircleRadius;
+    /**
+     * 手指拖拽气泡圆心坐标
+     */
+    private float mBubbleX;
+    private float mBubbleY;
+    /**
+     * 黏质小球和拖拽气泡之间的距离
+     */
+    private float mDistance;
+    private int mState = BubbleDragRules.STATE_DEFAULT;
+
+    private int mAnimation = ANIM_NONE;
+    /**
+     * 当前动画已进行的时间和尚未推进的时间
+     */
+    private float mElapsed;
+    private float mAccumulator;
+    private float mRestoreDuration = DEFAULT_DURATION;
+    private float mDismissDuration = DEFAULT_DURATION;
+    private final RestoreMotion mRestoreMotion = new RestoreMotion();
+    private BubbleInterpolators.SpringTable mRestoreSpring = BubbleInterpolators.restoreWobble();
+    private final BezierNeck mNeck = new BezierNeck();
+
+    BubbleSimulation(float bubbleRadius) {
+        setBubbleRadius(bubbleRadius);
+    }
+
+    void setBubbleRadius(float bubbleRadius) {
+        mBubbleRadius = bubbleRadius;
+        mMaxDistance = BubbleDragRules.maxDistance(bubbleRadius);
+        mCircleRadius = bubbleRadius;
+    }
+
+    void setRestoreSpring(BubbleInterpolators.SpringTable restoreSpring) {
+        mRestoreSpring = restoreSpring;
+    }
+
+    /**
+     * @param restoreMillis 复原动画时长
+     * @param dismissMillis 消失动画时长
+     */
+    void setDurations(float restoreMillis, float dismissMillis) {
+        mRestoreDuration = restoreMillis;
+        mDismissDuration = dismissMillis;
+    }
+
+    /**
+     * 气泡回到 (x, y)，恢复默认状态并停止动画
+     */
+    void reset(float x, float y) {
+        mBubbleX = x;
+        mBubbleY = y;
+        mCircleX = x;
+        mCircleY = y;
+        mCircleRadius = mBubbleRadius;
+        mDistance = 0;
+        mState = BubbleDragRules.STATE_DEFAULT;
+        mAnimation = ANIM_NONE;
+    }
+
+    /**
+     * 手指按下
+     *
+     * @return 按在气泡上，开始拖拽时返回 true
+     */
+    boolean down(float x, float y) {
+        if (mState == BubbleDragRules.STATE_DISMISS) {
+            return false;
+        }
+        mDistance = (float) Math.hypot(x - mBubbleX, y - mBubbleY);
+        if (mDistance < BubbleDragRules.touchSlop(mBubbleRadius, mMaxDistance)) {
+            //当指尖坐标在圆内的时候，才认为是可拖拽的，复原过程中再次按下则停止复原
+            mAnimation = ANIM_NONE;
+            mState = BubbleDragRules.STATE_DRAG;
+            return true;
+        }
+        mState = BubbleDragRules.STATE_DEFAULT;
+        return false;
+    }
+
+    /**
+     * 手指移动，气泡跟随到 (x, y)
+     *
+     * @return EVENT_DRAG、EVENT_MOVE 或 EVENT_NONE
+     */
+    int move(float x, float y) {
+        if (mState == BubbleDragRules.STATE_DEFAULT || mState == BubbleDragRules.STATE_DISMISS) {
+            return EVENT_NONE;
+        }
+        mBubbleX = x;
+        mBubbleY = y;
+        mDistance = (float) Math.hypot(mBubbleX - mCircleX, mBubbleY - mCircleY);
+        if (mState != BubbleDragRules.STATE_DRAG) {
+            return EVENT_NONE;
+        }
+        if (BubbleDragRules.isSticky(mDistance, mMaxDistance)) {
+            //使黏质小球半径渐渐变小
+            mCircleRadius = BubbleDragRules.stickyRadius(mBubbleRadius, mDistance);
+            return EVENT_DRAG;
+        }
+        mState = BubbleDragRules.STATE_MOVE;
+        return EVENT_MOVE;
+    }
+
+    /**
+     * 手指抬起，开始复原或消失
+     *
+     * @return 气泡消失时返回 EVENT_DISMISS，其余返回 EVENT_NONE
+     */
+    int up() {
+        if (mState == BubbleDragRules.STATE_DRAG) {
+            //正在拖拽时松开手指，气泡恢复原来的位置并颤动一下
+            startRestore();
+        } else if (mState == BubbleDragRules.STATE_MOVE) {
+            if (BubbleDragRules.shouldRestore(mDistance, mBubbleRadius)) {
+                startRestore();
+            } else {
+                mState = BubbleDragRules.STATE_DISMISS;
+                startAnimation(ANIM_DISMISS);
+                return EVENT_DISMISS;
+            }
+        }
+        return EVENT_NONE;
+    }
+
+    /**
+     * 手势被取消，例如父 View 拦截了触摸，拖拽中的气泡总是复原，不会消失
+     */
+    void cancel() {
+        if (mState == BubbleDragRules.STATE_DRAG || mState == BubbleDragRules.STATE_MOVE) {
+            startRestore();
+        }
+    }
+
+    /**
+     * 不经过拖拽直接让静止的气泡消失，用于批量清除
+     *
+     * @return 气泡已经在消失时返回 false
+     */
+    boolean dismiss() {
+        if (mState == BubbleDragRules.STATE_DISMISS) {
+            return false;
+        }
+        mBubbleX = mCircleX;
+        mBubbleY = mCircleY;
+        mDistance = 0;
+        mState = BubbleDragRules.STATE_DISMISS;
+        startAnimation(ANIM_DISMISS);
+        return true;
+    }
+
+    /**
+     * 直接结束正在播放的爆炸，气泡保持消失状态
+     */
+    void finishDismiss() {
+        if (mAnimation == ANIM_DISMISS) {
+            mAnimation = ANIM_NONE;
+        }
+    }
+
+    private void startRestore() {
+        mRestoreMotion.start(mBubbleX, mBubbleY, mCircleX, mCircleY);
+        startAnimation(ANIM_RESTORE);
+    }
+
+    private void startAnimation(int animation) {
+        mAnimation = animation;
+        mElapsed = 0;
+        mAccumulator = 0;
+    }
+
+    /**
+     * 推进动画
+     *
+     * @param deltaMillis 距上次调用经过的时间
+     * @return 复原结束时返回 EVENT_RESTORE，其余返回 EVENT_NONE
+     */
+    int step(float deltaMillis) {
+        if (mAnimation == ANIM_NONE) {
+            return EVENT_NONE;
+        }
+        mAccumulator += deltaMillis;
+        int steps = 0;
+        while (mAccumulator >= STEP_MILLIS && steps < MAX_STEPS) {
+            mAccumulator -= STEP_MILLIS;
+            steps++;
+            mElapsed += STEP_MILLIS;
+            if (mAnimation == ANIM_RESTORE) {
+                if (mElapsed >= mRestoreDuration) {
+                    //动画结束后状态改为默认
+                    mBubbleX = mCircleX;
+                    mBubbleY = mCircleY;
+                    mState = BubbleDragRules.STATE_DEFAULT;
+                    mAnimation = ANIM_NONE;
+                    return EVENT_RESTORE;
+                }
+                mRestoreMotion.update(mRestoreSpring.getInterpolation(mElapsed / mRestoreDuration));
+                mBubbleX = mRestoreMotion.getX();
+                mBubbleY = mRestoreMotion.getY();
+            } else if (mElapsed >= mDismissDuration) {
+                mAnimation = ANIM_NONE;
+                return EVENT_NONE;
+            }
+        }
+        if (steps == MAX_STEPS) {
+            mAccumulator = 0;
+        }
+        return EVENT_NONE;
+    }
+
+    /**
+     * 是否需要画黏质小球和贝塞尔曲线
+     */
+    boolean isNeckVisible() {
+        return mState == BubbleDragRules.STATE_DRAG && mDistance > 0
+                && BubbleDragRules.isSticky(mDistance, mMaxDistance);
+    }
+
+    /**
+     * 计算当前的贝塞尔曲线，只在 {@link #isNeckVisible()} 时有意义
+     */
+    BezierNeck computeNeck() {
+        mNeck.calculate(mCircleX, mCircleY, mCircleRadius, mBubbleX, mBubbleY, mBubbleRadius,
+                mDistance);
+        return mNeck;
+    }
+
+    boolean isAnimating() {
+        return mAnimation != ANIM_NONE;
+    }
+
+    boolean isRestoring() {
+        return mAnimation == ANIM_RESTORE;
+    }
+
+    boolean isExploding() {
+        return mAnimation == ANIM_DISMISS;
+    }
+
+    /**
+     * 爆炸动画的进度 [0, 1)
+     */
+    float getDismissProgress() {
+        return mElapsed / mDismissDuration;
+    }
+
+    /**
+     * 爆炸动画当前应显示第几帧
+     */
+    int getExplosionFrame(int frameCount) {
+        return Math.min((int) (getDismissProgress() * frameCount), frameCount - 1);
+    }
+
+    int getState() {
+        return mState;
+    }
+
+    float getBubbleRadius() {
+        return mBubbleRadius;
+    }
+
+    float getMaxDistance() {
+        return mMaxDistance;
+    }
+
+    float getBubbleX() {
+        return mBubbleX;
+    }
+
+    float getBubbleY() {
+        return mBubbleY;
+    }
+
+    float getCircleX() {
+        return mCircleX;
+    }
+
+    float getCircleY() {
+        return mCircleY;
+    }
+
+    float getCircleRadius() {
+        return mCircleRadius;
+    }
+
+    float getDistance() {
+        return mDistance;
+    }
+}
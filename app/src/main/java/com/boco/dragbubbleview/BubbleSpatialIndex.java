@@ -0,0 +1,200 @@
+package com.boco.dragbubbleview;
+
+import java.util.Arrays;
+
+/**
+ * 气泡圆心的均匀网格索引，用于按下时查找手指下的气泡
+ * <p>
+ * 每个气泡按圆心落在一个格子里，格子内用双向链表串起来，移动和删除都是 O(1)。
+ * 查询时只检查按下位置周围、覆盖最大拾取半径的几个格子。超出边界的坐标归到边缘格子，
+ * 因此气泡拖到边界外仍然可以查到。
+ */
+final class BubbleSpatialIndex {
+
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final float mCellSize;
+    private int mColumns;
+    private int mRows;
+    /**
+     * 格子 -> 第一个气泡id
+     */
+    private int[] mCellHead;
+
+    /**
+     * 以下数组都以气泡id为下标
+     */
+    private int[] mCellOf;
+    private int[] mNext;
+    private int[] mPrev;
+    private float[] mX;
+    private float[] mY;
+    private float[] mSlop;
+    /**
+     * 出现过的最大拾取半径，决定查询时检查的格子范围
+     */
+    private float mMaxSlop;
+    private int mSize;
+
+    /**
+     * @param cellSize 格子边长，取常见拾取半径的两倍左右比较合适
+     */
+    BubbleSpatialIndex(float cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cellSize must be positive: " + cellSize);
+        }
+        mCellSize = cellSize;
+        mColumns = 1;
+        mRows = 1;
+        mCellHead = new int[]{NONE};
+        mCellOf = new int[INITIAL_CAPACITY];
+        Arrays.fill(mCellOf, NONE);
+        mNext = new int[INITIAL_CAPACITY];
+        mPrev = new int[INITIAL_CAPACITY];
+        mX = new float[INITIAL_CAPACITY];
+        mY = new float[INITIAL_CAPACITY];
+        mSlop = new float[INITIAL_CAPACITY];
+    }
+
+    /**
+     * 设置网格覆盖的区域 [0, width) x [0, height)，已有的气泡重新分格
+     */
+    void setBounds(float width, float height) {
+        int columns = Math.max(1, (int) Math.ceil(width / mCellSize));
+        int rows = Math.max(1, (int) Math.ceil(height / mCellSize));
+        if (columns == mColumns && rows == mRows) {
+            return;
+        }
+        mColumns = columns;
+        mRows = rows;
+        mCellHead = new int[columns * rows];
+        Arrays.fill(mCellHead, NONE);
+        for (int id = 0; id < mCellOf.length; id++) {
+            if (mCellOf[id] != NONE) {
+                link(id, cellOf(mX[id], mY[id]));
+            }
+        }
+    }
+
+    /**
+     * 添加气泡，已存在时更新位置和拾取半径
+     */
+    void put(int id, float x, float y, float slop) {
+        ensureCapacity(id + 1);
+        mX[id] = x;
+        mY[id] = y;
+        mSlop[id] = slop;
+        if (slop > mMaxSlop) {
+            mMaxSlop = slop;
+        }
+        int cell = cellOf(x, y);
+        int oldCell = mCellOf[id];
+        if (oldCell == cell) {
+            return;
+        }
+        if (oldCell != NONE) {
+            unlink(id);
+        } else {
+            mSize++;
+        }
+        link(id, cell);
+    }
+
+    void remove(int id) {
+        if (id < 0 || id >= mCellOf.length || mCellOf[id] == NONE) {
+            return;
+        }
+        unlink(id);
+        mCellOf[id] = NONE;
+        mSize--;
+    }
+
+    boolean contains(int id) {
+        return id >= 0 && id < mCellOf.length && mCellOf[id] != NONE;
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    /**
+     * 查找拾取半径覆盖 (x, y) 的气泡，多个时取圆心最近的
+     *
+     * @return 气泡id，没有时为 -1
+     */
+    int query(float x, float y) {
+        int range = (int) Math.ceil(mMaxSlop / mCellSize);
+        int column = clamp((int) Math.floor(x / mCellSize), mColumns);
+        int row = clamp((int) Math.floor(y / mCellSize), mRows);
+        int fromColumn = Math.max(0, column - range);
+        int toColumn = Math.min(mColumns - 1, column + range);
+        int fromRow = Math.max(0, row - range);
+        int toRow = Math.min(mRows - 1, row + range);
+        int found = NONE;
+        float minDistanceSq = Float.MAX_VALUE;
+        for (int r = fromRow; r <= toRow; r++) {
+            for (int c = fromColumn; c <= toColumn; c++) {
+                for (int id = mCellHead[r * mColumns + c]; id != NONE; id = mNext[id]) {
+                    float dx = x - mX[id];
+                    float dy = y - mY[id];
+                    float distanceSq = dx * dx + dy * dy;
+                    if (distanceSq < mSlop[id] * mSlop[id] && distanceSq < minDistanceSq) {
+                        minDistanceSq = distanceSq;
+                        found = id;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private int cellOf(float x, float y) {
+        int column = clamp((int) Math.floor(x / mCellSize), mColumns);
+        int row = clamp((int) Math.floor(y / mCellSize), mRows);
+        return row * mColumns + column;
+    }
+
+    private static int clamp(int value, int count) {
+        return value < 0 ? 0 : value >= count ? count - 1 : value;
+    }
+
+    private void link(int id, int cell) {
+        int head = mCellHead[cell];
+        mPrev[id] = NONE;
+        mNext[id] = head;
+        if (head != NONE) {
+            mPrev[head] = id;
+        }
+        mCellHead[cell] = id;
+        mCellOf[id] = cell;
+    }
+
+    private void unlink(int id) {
+        int prev = mPrev[id];
+        int next = mNext[id];
+        if (prev != NONE) {
+            mNext[prev] = next;
+        } else {
+            mCellHead[mCellOf[id]] = next;
+        }
+        if (next != NONE) {
+            mPrev[next] = prev;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= mCellOf.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, mCellOf.length * 2);
+        int oldCapacity = mCellOf.length;
+        mCellOf = Arrays.copyOf(mCellOf, newCapacity);
+        Arrays.fill(mCellOf, oldCapacity, newCapacity, NONE);
+        mNext = Arrays.copyOf(mNext, newCapacity);
+        mPrev = Arrays.copyOf(mPrev, newCapacity);
+        mX = Arrays.copyOf(mX, newCapacity);
+        mY = Arrays.copyOf(mY, newCapacity);
+        mSlop = Arrays.copyOf(mSlop, newCapacity);
+    }
+}
@@ -0,0 +1,192 @@
+package com.boco.dragbubbleview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import java.util.HashMap;
+
+/**
+ * 静止气泡的位图缓存
+ * <p>
+ * 静止状态的气泡按颜色、半径、文本和屏幕密度渲染一次，放进进程共享的图集中，
+ * 之后每次重绘只需一次 drawBitmap。图集按行(shelf)分配空间，放满后换一张新的图集重来。
+ * 旧图集不擦除：其他 View 已经录制的显示列表仍引用旧位图，原地擦除会让它们画出空白或错位的角标。
+ * 换图集前取到的 Sprite 仍能正确绘制，但 {@link Sprite#isValid()} 返回 false，
+ * 使用方下次重绘时应重新获取，不再被引用的旧图集随之回收。
+ */
+final class BubbleSpriteCache {
+
+    private static final int ATLAS_SIZE = 512;
+    /**
+     * 每个精灵四周留出的透明边，避免过滤采样时取到相邻精灵的像素
+     */
+    private static final int PADDING = 1;
+
+    private static BubbleSpriteCache sInstance;
+
+    private Bitmap mAtlas;
+    private Canvas mAtlasCanvas;
+    private final Paint mBubblePaint;
+    private final Paint mTextPaint;
+    private final RectF mShapeRect = new RectF();
+    private final HashMap<String, Sprite> mSprites = new HashMap<>();
+    /**
+     * 图集每清空一次加一
+     */
+    private int mGeneration;
+    /**
+     * 当前行的起点和行高
+     */
+    private int mShelfX;
+    private int mShelfY;
+    private int mShelfHeight;
+
+    private BubbleSpriteCache() {
+        mBubblePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mBubblePaint.setStyle(Paint.Style.FILL);
+        mTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    }
+
+    static BubbleSpriteCache get() {
+        if (sInstance == null) {
+            sInstance = new BubbleSpriteCache();
+        }
+        return sInstance;
+    }
+
+    /**
+     * 获取静止气泡的精灵，没有时渲染到图集中
+     *
+     * @param textPaint 气泡文本的画笔，取其颜色和字号
+     * @return 精灵，气泡大于图集时为 null
+     */
+    Sprite obtain(int bubbleColor, float bubbleRadius, BubbleLabelCache.Label label,
+                  Paint textPaint, float density) {
+        String key = bubbleColor + "|" + bubbleRadius + "|" + textPaint.getColor() + "|"
+                + textPaint.getTextSize() + "|" + density + "|" + label.getText();
+        Sprite sprite = mSprites.get(key);
+        if (sprite != null && sprite.isValid()) {
+            return sprite;
+        }
+        float halfWidth = BubbleDragRules.halfWidth(bubbleRadius, label.getShape());
+        int width = (int) Math.ceil(2 * halfWidth) + 2 * PADDING;
+        int height = (int) Math.ceil(2 * bubbleRadius) + 2 * PADDING;
+        if (width > ATLAS_SIZE || height > ATLAS_SIZE) {
+            return null;
+        }
+        if (mAtlas == null) {
+            newAtlas();
+        }
+        if (!allocate(width, height)) {
+            clear();
+            allocate(width, height);
+        }
+        sprite = new Sprite(this, mAtlas, mGeneration, mShelfX - width, mShelfY, width, height);
+        render(sprite, bubbleColor, bubbleRadius, halfWidth, label, textPaint);
+        mSprites.put(key, sprite);
+        return sprite;
+    }
+
+    /**
+     * 在当前行分配空间，行放不下时换行
+     *
+     * @return 图集已满时返回 false
+     */
+    private boolean allocate(int width, int height) {
+        if (mShelfX + width > ATLAS_SIZE) {
+            mShelfY += mShelfHeight;
+            mShelfX = 0;
+            mShelfHeight = 0;
+        }
+        if (mShelfY + height > ATLAS_SIZE) {
+            return false;
+        }
+        mShelfX += width;
+        mShelfHeight = Math.max(mShelfHeight, height);
+        return true;
+    }
+
+    private void newAtlas() {
+        mAtlas = Bitmap.createBitmap(ATLAS_SIZE, ATLAS_SIZE, Bitmap.Config.ARGB_8888);
+        mAtlasCanvas = new Canvas(mAtlas);
+    }
+
+    /**
+     * 换一张新的图集，旧图集留给仍在引用它的 Sprite 和显示列表
+     */
+    private void clear() {
+        newAtlas();
+        mSprites.clear();
+        mGeneration++;
+        mShelfX = 0;
+        mShelfY = 0;
+        mShelfHeight = 0;
+    }
+
+    private void render(Sprite sprite, int bubbleColor, float bubbleRadius, float halfWidth,
+                        BubbleLabelCache.Label label, Paint textPaint) {
+        float centerX = sprite.mLeft + sprite.mWidth / 2f;
+        float centerY = sprite.mTop + sprite.mHeight / 2f;
+        mBubblePaint.setColor(bubbleColor);
+        if (label.getShape() == BubbleDragRules.SHAPE_CIRCLE) {
+            mAtlasCanvas.drawCircle(centerX, centerY, bubbleRadius, mBubblePaint);
+        } else {
+            mShapeRect.set(centerX - halfWidth, centerY - bubbleRadius,
+                    centerX + halfWidth, centerY + bubbleRadius);
+            mAtlasCanvas.drawRoundRect(mShapeRect, bubbleRadius, bubbleRadius, mBubblePaint);
+        }
+        mTextPaint.set(textPaint);
+        mAtlasCanvas.drawText(label.getText(), centerX + label.getOffsetX(),
+                centerY + label.getOffsetY(), mTextPaint);
+    }
+
+    /**
+     * 图集中的一块区域
+     */
+    static final class Sprite {
+        private final BubbleSpriteCache mCache;
+        /**
+         * 渲染时所在的图集，换图集后仍指向旧的位图
+         */
+        private final Bitmap mAtlas;
+        private final int mGeneration;
+        private final int mLeft;
+        private final int mTop;
+        private final int mWidth;
+        private final int mHeight;
+        private final Rect mSource;
+
+        private Sprite(BubbleSpriteCache cache, Bitmap atlas, int generation, int left, int top,
+                       int width, int height) {
+            mCache = cache;
+            mAtlas = atlas;
+            mGeneration = generation;
+            mLeft = left;
+            mTop = top;
+            mWidth = width;
+            mHeight = height;
+            mSource = new Rect(left, top, left + width, top + height);
+        }
+
+        /**
+         * 换图集后失效，仍可绘制，但应重新获取以便旧图集回收
+         */
+        boolean isValid() {
+            return mGeneration == mCache.mGeneration;
+        }
+
+        /**
+         * 以 (centerX, centerY) 为中心画出精灵
+         *
+         * @param dst 复用的目标矩形
+         */
+        void draw(Canvas canvas, float centerX, float centerY, RectF dst, Paint paint) {
+            dst.set(centerX - mWidth / 2f, centerY - mHeight / 2f,
+                    centerX + mWidth / 2f, centerY + mHeight / 2f);
+            canvas.drawBitmap(mAtlas, mSource, dst, paint);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.boco.dragbubbleview;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 气泡状态回调的分发
+ * <p>
+ * 同一帧内产生的事件先记下来，由调用方在下一帧开始时 {@link #flush()} 一次性分发，
+ * 连续的 onDrag 合并成一次。监听器数组在增删时复制，分发时直接遍历，不创建对象。
+ * 设置 Executor 后在 Executor 上回调，事件放在固定大小的环形队列里，由一个复用的
+ * Runnable 依次取出。
+ */
+final class BubbleStateDispatcher {
+
+    private static final DragBubbleView.OnBubbleStateListener[] NO_LISTENERS =
+            new DragBubbleView.OnBubbleStateListener[0];
+    /**
+     * 一帧内最多记录的事件，一次手势在一帧内最多产生 拖拽-移动-消失 三个
+     */
+    private static final int MAX_FRAME_EVENTS = 8;
+    /**
+     * Executor 上尚未分发的事件，满了以后丢弃新的 onDrag
+     */
+    private static final int MAX_QUEUED_EVENTS = 64;
+
+    private volatile DragBubbleView.OnBubbleStateListener[] mListeners = NO_LISTENERS;
+
+    private final int[] mFrameEvents = new int[MAX_FRAME_EVENTS];
+    private int mFrameEventCount;
+
+    private Executor mExecutor;
+    private final int[] mQueue = new int[MAX_QUEUED_EVENTS];
+    private int mQueueHead;
+    private int mQueueSize;
+    private boolean mDeliveryScheduled;
+    private final Runnable mDeliverRunnable = new Runnable() {
+        @Override
+        public void run() {
+            drainQueue();
+        }
+    };
+
+    private int mPostedCount;
+    private int mDeliveredCount;
+
+    synchronized void addListener(DragBubbleView.OnBubbleStateListener listener) {
+        DragBubbleView.OnBubbleStateListener[] listeners = mListeners;
+        for (DragBubbleView.OnBubbleStateListener l : listeners) {
+            if (l == listener) {
+                return;
+            }
+        }
+        DragBubbleView.OnBubbleStateListener[] newListeners =
+                new DragBubbleView.OnBubbleStateListener[listeners.length + 1];
+        System.arraycopy(listeners, 0, newListeners, 0, listeners.length);
+        newListeners[listeners.length] = listener;
+        mListeners = newListeners;
+    }
+
+    synchronized void removeListener(DragBubbleView.OnBubbleStateListener listener) {
+        DragBubbleView.OnBubbleStateListener[] listeners = mListeners;
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                if (listeners.length == 1) {
+                    mListeners = NO_LISTENERS;
+                    return;
+                }
+                DragBubbleView.OnBubbleStateListener[] newListeners =
+                        new DragBubbleView.OnBubbleStateListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, newListeners, 0, i);
+                System.arraycopy(listeners, i + 1, newListeners, i, listeners.length - i - 1);
+                mListeners = newListeners;
+                return;
+            }
+        }
+    }
+
+    boolean hasListeners() {
+        return mListeners.length > 0;
+    }
+
+    /**
+     * 设置回调所在的 Executor，为 null 时在 {@link #flush()} 的线程上回调
+     */
+    synchronized void setExecutor(Executor executor) {
+        mExecutor = executor;
+    }
+
+    /**
+     * 记下一个事件，和上一个相同时合并
+     *
+     * @param event {@link BubbleSimulation} 的 EVENT_DRAG、EVENT_MOVE、EVENT_RESTORE 或 EVENT_DISMISS
+     * @return 本帧的第一个事件返回 true，调用方需要安排下一帧调用 {@link #flush()}
+     */
+    boolean post(int event) {
+        mPostedCount++;
+        if (!hasListeners()) {
+            return false;
+        }
+        if (mFrameEventCount > 0 && mFrameEvents[mFrameEventCount - 1] == event) {
+            return false;
+        }
+        if (mFrameEventCount == MAX_FRAME_EVENTS) {
+            //不会出现，防止越界
+            return false;
+        }
+        mFrameEvents[mFrameEventCount++] = event;
+        return mFrameEventCount == 1;
+    }
+
+    /**
+     * 分发本帧记下的事件
+     */
+    void flush() {
+        int count = mFrameEventCount;
+        mFrameEventCount = 0;
+        if (count == 0) {
+            return;
+        }
+        Executor executor;
+        synchronized (this) {
+            executor = mExecutor;
+            if (executor != null) {
+                for (int i = 0; i < count; i++) {
+                    enqueue(mFrameEvents[i]);
+                }
+                if (mDeliveryScheduled) {
+                    return;
+                }
+                mDeliveryScheduled = true;
+            }
+        }
+        if (executor != null) {
+            executor.execute(mDeliverRunnable);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            deliver(mFrameEvents[i]);
+        }
+    }
+
+    private void enqueue(int event) {
+        if (mQueueSize > 0) {
+            int last = mQueue[(mQueueHead + mQueueSize - 1) % MAX_QUEUED_EVENTS];
+            if (last == event) {
+                return;
+            }
+        }
+        if (mQueueSize == MAX_QUEUED_EVENTS) {
+            if (event == BubbleSimulation.EVENT_DRAG) {
+                return;
+            }
+            //状态变化不能丢，挤掉最早的事件
+            mQueueHead = (mQueueHead + 1) % MAX_QUEUED_EVENTS;
+            mQueueSize--;
+        }
+        mQueue[(mQueueHead + mQueueSize) % MAX_QUEUED_EVENTS] = event;
+        mQueueSize++;
+    }
+
+    private void drainQueue() {
+        while (true) {
+            int event;
+            synchronized (this) {
+                if (mQueueSize == 0) {
+                    mDeliveryScheduled = false;
+                    return;
+                }
+                event = mQueue[mQueueHead];
+                mQueueHead = (mQueueHead + 1) % MAX_QUEUED_EVENTS;
+                mQueueSize--;
+            }
+            deliver(event);
+        }
+    }
+
+    private void deliver(int event) {
+        DragBubbleView.OnBubbleStateListener[] listeners = mListeners;
+        for (DragBubbleView.OnBubbleStateListener listener : listeners) {
+            switch (event) {
+                case BubbleSimulation.EVENT_DRAG:
+                    listener.onDrag();
+                    break;
+                case BubbleSimulation.EVENT_MOVE:
+                    listener.onMove();
+                    break;
+                case BubbleSimulation.EVENT_RESTORE:
+                    listener.onRestore();
+                    break;
+                case BubbleSimulation.EVENT_DISMISS:
+                    listener.onDismiss();
+                    break;
+                default:
+                    break;
+            }
+        }
+        synchronized (this) {
+            mDeliveredCount++;
+        }
+    }
+
+    /**
+     * 调用 {@link #post(int)} 的次数
+     */
+    int getPostedCount() {
+        return mPostedCount;
+    }
+
+    /**
+     * 实际分发的事件个数，每个事件对所有监听器只算一次
+     */
+    synchronized int getDeliveredCount() {
+        return mDeliveredCount;
+    }
+}
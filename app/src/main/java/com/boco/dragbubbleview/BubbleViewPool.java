@@ -0,0 +1,46 @@
+package com.boco.dragbubbleview;
+
+import android.support.v4.util.Pools;
+
+/**
+ * {@link DragBubbleView} 之间共享的绘制资源池
+ * <p>
+ * View 解绑或离开窗口时把 Canvas 适配还回来，下次绑定时直接取用，
+ * 列表快速滑动时反复回收的气泡不再重新分配画笔和路径。动画统一由
+ * {@link BubbleAnimationDriver} 推进，View 本身不持有动画。只在主线程使用。
+ */
+final class BubbleViewPool {
+
+    private static final int MAX_POOL_SIZE = 16;
+
+    private static final Pools.SimplePool<AndroidBubbleCanvas> sCanvasPool =
+            new Pools.SimplePool<>(MAX_POOL_SIZE);
+    /**
+     * 池中没有可用对象时新建的次数
+     */
+    private static int sCanvasCreateCount;
+
+    private BubbleViewPool() {
+    }
+
+    static AndroidBubbleCanvas acquireCanvas() {
+        AndroidBubbleCanvas canvas = sCanvasPool.acquire();
+        if (canvas == null) {
+            canvas = new AndroidBubbleCanvas();
+            sCanvasCreateCount++;
+        }
+        return canvas;
+    }
+
+    static void releaseCanvas(AndroidBubbleCanvas canvas) {
+        canvas.setCanvas(null);
+        canvas.setTextPaint(null);
+        canvas.setExplosionRenderer(null);
+        canvas.setAntiAlias(true);
+        sCanvasPool.release(canvas);
+    }
+
+    static int getCanvasCreateCount() {
+        return sCanvasCreateCount;
+    }
+}
@@ -0,0 +1,69 @@
+package com.boco.dragbubbleview;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 任意线程写入、主线程按帧取出的未读数，只保留最新的值
+ * <p>
+ * 写入不加锁：先写值，再用一个原子标志判断是否已经安排了取出，已经安排时这次写入被合并，
+ * 调用方不需要再 post。主线程取出时先清标志再读值，取出之后的写入会重新安排，不会丢失。
+ */
+final class ConflatedCount {
+
+    private final AtomicInteger mValue = new AtomicInteger();
+    private final AtomicBoolean mScheduled = new AtomicBoolean();
+    private final AtomicInteger mPostCount = new AtomicInteger();
+    private final AtomicInteger mConflatedCount = new AtomicInteger();
+    private volatile int mApplyCount;
+
+    /**
+     * 写入最新的值，可在任意线程调用
+     *
+     * @return 需要调用方安排一次 {@link #take(int)} 时返回 true，已经安排过时返回 false
+     */
+    boolean post(int count) {
+        mValue.set(count);
+        mPostCount.incrementAndGet();
+        if (mScheduled.compareAndSet(false, true)) {
+            return true;
+        }
+        mConflatedCount.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * 取出最新的值，只在主线程调用
+     *
+     * @param fallback 已经取出或被 {@link #cancel()} 时返回的值
+     */
+    int take(int fallback) {
+        if (!mScheduled.getAndSet(false)) {
+            return fallback;
+        }
+        mApplyCount++;
+        return mValue.get();
+    }
+
+    /**
+     * 丢弃还没取出的值，例如列表复用时绑定了新的数据
+     */
+    void cancel() {
+        mScheduled.set(false);
+    }
+
+    int getPostCount() {
+        return mPostCount.get();
+    }
+
+    /**
+     * 被后来的写入覆盖、没有单独取出的次数
+     */
+    int getConflatedCount() {
+        return mConflatedCount.get();
+    }
+
+    int getApplyCount() {
+        return mApplyCount;
+    }
+}
@@ -1,44 +1,49 @@
 package com.boco.dragbubbleview;
 
 
-import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
-import android.animation.TimeInterpolator;
-import android.animation.TypeEvaluator;
-import android.animation.ValueAnimator;
 import android.content.Context;
 import android.content.res.TypedArray;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.Path;
-import android.graphics.PointF;
 import android.graphics.Rect;
 import android.graphics.RectF;
+import android.os.Debug;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.support.annotation.Nullable;
+import android.support.v4.view.ViewCompat;
 import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.View;
-import android.view.animation.LinearInterpolator;
+import android.view.WindowManager;
 
+import java.util.concurrent.Executor;
 
-public class DragBubbleView extends View {
 
-    private Paint mBubblePaint;
+public class DragBubbleView extends View implements BubbleDismissCascade.Target {
+
+    /**
+     * 动画时不使用图层，默认
+     */
+    public static final int RENDER_POLICY_NONE = View.LAYER_TYPE_NONE;
+    /**
+     * 拖拽和动画时使用软件层，硬件加速下也能用网格方式画黏质小球和贝塞尔曲线
+     */
+    public static final int RENDER_POLICY_SOFTWARE = View.LAYER_TYPE_SOFTWARE;
+    /**
+     * 拖拽和动画时使用硬件层
+     */
+    public static final int RENDER_POLICY_HARDWARE = View.LAYER_TYPE_HARDWARE;
+
     private Paint mTextPaint;
-    private Rect mTextRect;
-    private Path mBezierPath;
-    private RectF mBubble2RectF;
-    private RectF mBubble3RectF;
-    private Paint mExplosionPaint;
-    private Rect mExplosionRect;
     /**
-     * 黏质小球半径
+     * 一帧的绘制逻辑和它使用的 Canvas 适配，后者解绑或离开窗口时还给 {@link BubbleViewPool}
      */
-    private float mCircleRadius;
+    private final BubbleRenderer mRenderer = new BubbleRenderer();
+    private AndroidBubbleCanvas mBubbleCanvas;
     /**
      * 手指拖拽气泡半径
      */
@@ -51,6 +56,19 @@ public class DragBubbleView extends View {
      * 气泡消息文本
      */
     private String mBubbleText;
+    /**
+     * 通过 {@link #setCount(int)} 设置的未读数和显示上限
+     */
+    private int mCount;
+    private int mMaxCount = BubbleCountLabels.DEFAULT_MAX_COUNT;
+    /**
+     * 后台线程通过 {@link #postCount(int)} 写入、等待下一帧应用的未读数
+     */
+    private final ConflatedCount mPostedCount = new ConflatedCount();
+    /**
+     * 后台线程只能通过主线程 Handler 转到主线程，再按帧应用
+     */
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
     /**
      * 气泡消息文本颜色
      */
@@ -59,95 +77,136 @@ public class DragBubbleView extends View {
      * 气泡消息文本大小
      */
     private float mTextSize;
+    /**
+     * 当前字号的文本测量缓存
+     */
+    private BubbleLabelCache mLabelCache;
+    /**
+     * 当前文本的形状和绘制偏移，文本为空时为 null
+     */
+    private BubbleLabelCache.Label mLabel;
 
+    /**
+     * 静止时是否使用位图缓存绘制
+     */
+    private boolean mSpriteCacheEnabled;
+    /**
+     * 当前静止气泡的精灵，参数变化后置空重新获取
+     */
+    private BubbleSpriteCache.Sprite mSprite;
+    private Paint mSpritePaint;
+    private RectF mSpriteRectF;
 
     /**
-     * 手指拖拽气泡圆心X坐标
+     * 气泡位置、状态和动画的计算都交给模拟器
      */
-    private float mBubbleCenterX;
+    private BubbleSimulation mSimulation;
     /**
-     * 手指拖拽气泡圆心Y坐标
+     * 默认状态，无法拖动
      */
-    private float mBubbleCenterY;
+    private static final int STATE_DEFAULT = BubbleDragRules.STATE_DEFAULT;
     /**
-     * 黏质小球圆心X坐标
+     * 拖拽
      */
-    private float mCircleCenterX;
+    private static final int STATE_DRAG = BubbleDragRules.STATE_DRAG;
     /**
-     * 黏质小球圆心Y坐标
+     * 移动
      */
-    private float mCircleCenterY;
+    private static final int STATE_MOVE = BubbleDragRules.STATE_MOVE;
+    /**
+     * 消失
+     */
+    private static final int STATE_DISMISS = BubbleDragRules.STATE_DISMISS;
 
     /**
-     * 控制点X坐标
+     * 进程共享的爆炸帧缓存
      */
-    private float mControlX;
+    private ExplosionFrameCache mExplosionFrameCache;
     /**
-     * 控制点Y坐标
+     * 爆炸效果，默认逐帧播放爆炸图片
      */
-    private float mControlY;
+    private ExplosionRenderer mExplosionRenderer;
+    /**
+     * 本次消失实际使用的效果，批量清除超出预算时换成淡出
+     */
+    private ExplosionRenderer mDismissEffect;
+    private FadeExplosionRenderer mFadeEffect;
 
-    private float mCircleStartX;
-    private float mCircleStartY;
-    private float mBubbleEndX;
-    private float mBubbleEndY;
-    private float mBubbleStartX;
-    private float mBubbleStartY;
-    private float mCircleEndX;
-    private float mCircleEndY;
+    /**
+     * 是否按帧合并 ACTION_MOVE
+     */
+    private boolean mTouchCoalescing;
+    private final BubbleMoveCoalescer mMoveCoalescer = new BubbleMoveCoalescer();
+    private final float[] mPredicted = new float[2];
 
     /**
-     * 气泡状态
+     * 上一帧实际绘制的区域
      */
-    private int mState;
+    private final RectF mDrawBounds = new RectF();
     /**
-     * 默认状态，无法拖动
+     * 本帧需要绘制的区域，计算时复用
      */
-    private static final int STATE_DEFAULT = 0x00;
+    private final RectF mNextBounds = new RectF();
     /**
-     * 拖拽
+     * 上一帧以来累计的重绘区域
      */
-    private static final int STATE_DRAG = 0x01;
+    private final RectF mFrameDirtyBounds = new RectF();
+    private final Rect mDirtyRect = new Rect();
     /**
-     * 移动
+     * 是否显示重绘区域
      */
-    private static final int STATE_MOVE = 0x02;
+    private boolean mDebugInvalidation;
+    private Paint mDebugPaint;
     /**
-     * 消失
+     * 面积文本的字符缓冲，每帧复用，不生成字符串
+     */
+    private char[] mDebugDigits;
+    /**
+     * 上一帧重绘区域的面积(px)
+     */
+    private long mLastFrameDirtyArea;
+    /**
+     * 累计重绘面积(px)和帧数
      */
-    private static final int STATE_DISMISS = 0x03;
+    private long mTotalDirtyArea;
+    private int mDirtyFrameCount;
 
     /**
-     * 黏质小球和拖拽小球之间的距离
+     * 帧耗时和卡顿统计，未开启时为 null
      */
-    private float mDistance;
+    private BubbleMetrics mMetrics;
     /**
-     * 可拖拽的最大间距
+     * 是否开启了运行时的分配计数，这是整个进程的开关
      */
-    private float mMaxDistance;
+    private static boolean sAllocationCounting;
 
+
+    /**
+     * 拖拽和动画期间使用的图层
+     */
+    private int mRenderPolicy = RENDER_POLICY_NONE;
     /**
-     * 气泡爆炸的图片ID
+     * 当前是否因为拖拽或动画设置了图层
      */
-    private int[] mExplosionDrawables = {R.mipmap.explosion_one,
-            R.mipmap.explosion_two,
-            R.mipmap.explosion_three,
-            R.mipmap.explosion_four,
-            R.mipmap.explosion_five};
+    private boolean mRenderLayerApplied;
+    /**
+     * 按图层类型分别统计的 onDraw 耗时
+     */
+    private final LayerDrawStats mLayerDrawStats = new LayerDrawStats();
 
     /**
-     * 气泡爆炸的bitmap数组
+     * 按绘制耗时调节质量，未开启时为 null
      */
-    private Bitmap[] mExplosionBitmaps;
+    private BubbleQualityGovernor mQualityGovernor;
 
     /**
-     * 气泡爆炸进行到当前第几张
+     * 拖拽时是否交给窗口浮层绘制
      */
-    private int mCurrentExplosionIndex;
+    private boolean mOverlayDrag;
     /**
-     * 气泡爆炸是否开始
+     * 正在替本 View 绘制气泡的浮层，没有交出时为 null
      */
-    private boolean mIsExplosionAnimStart = false;
+    private BubbleDragOverlay mDragOverlay;
 
     public DragBubbleView(Context context) {
         this(context, null);
@@ -168,50 +227,108 @@ public class DragBubbleView extends View {
         mTextColor = typedArray.getColor(R.styleable.DragBubbleView_textColor, Color.WHITE);
         mTextSize = typedArray.getDimension(R.styleable.DragBubbleView_textSize, DensityUtils
                 .dp2px(context, 12));
+        mOverlayDrag = typedArray.getBoolean(R.styleable.DragBubbleView_overlayDrag, false);
         typedArray.recycle();
         init();
     }
 
     private void init() {
-        mState = STATE_DEFAULT;
-        mCircleRadius = mBubbleRadius;
-        mMaxDistance = 8 * mBubbleRadius;
-        mBubblePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mBubblePaint.setColor(mBubbleColor);
-        mBubblePaint.setStyle(Paint.Style.FILL);
-
-        mBezierPath = new Path();
+        mSimulation = new BubbleSimulation(mBubbleRadius);
+        mRenderer.setBubbleColor(mBubbleColor);
 
         mTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         mTextPaint.setColor(mTextColor);
         mTextPaint.setTextSize(mTextSize);
-        mTextRect = new Rect();
+        mLabelCache = BubbleLabelCache.get(mTextSize);
+        applyLabel(mBubbleText);
 
-        mBubble2RectF = new RectF();
-        mBubble3RectF = new RectF();
+        mExplosionFrameCache = ExplosionFrameCache.get(getContext());
+        mExplosionRenderer = new BitmapExplosionRenderer(mExplosionFrameCache);
+        mDismissEffect = mExplosionRenderer;
+    }
 
-        mExplosionPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mExplosionPaint.setFilterBitmap(true);
-        mExplosionRect = new Rect();
-        mExplosionBitmaps = new Bitmap[mExplosionDrawables.length];
-        for (int i = 0; i < mExplosionDrawables.length; i++) {
-            mExplosionBitmaps[i] = BitmapFactory.decodeResource(getResources(),
-                    mExplosionDrawables[i]);
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mExplosionFrameCache.acquire();
+        if (mExplosionRenderer instanceof BitmapExplosionRenderer) {
+            //显示时就在后台解码，通常消失前已经完成
+            mExplosionFrameCache.prefetch((int) (2 * mBubbleRadius));
         }
     }
 
-    private void setBubbleRect(float bubbleCenterX, float bubbleCenterY) {
-        mBubble2RectF.set(bubbleCenterX - mBubbleRadius * 4 / 3,
-                bubbleCenterY - mBubbleRadius * 1,
-                bubbleCenterX + mBubbleRadius * 4 / 3,
-                bubbleCenterY + mBubbleRadius * 1);
-        mBubble3RectF.set(bubbleCenterX - mBubbleRadius * 3 / 2,
-                bubbleCenterY - mBubbleRadius * 1,
-                bubbleCenterX + mBubbleRadius * 3 / 2,
-                bubbleCenterY + mBubbleRadius * 1
-        );
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        //离开窗口时回到静止状态，重新显示时不会接着播放旧的动画
+        cancelGesture();
+        removeCallbacks(mFlushStateRunnable);
+        mStateDispatcher.flush();
+        releasePooledResources();
+        mExplosionFrameCache.release();
     }
 
+    /**
+     * 绑定一个新的数量，用于列表复用时的 onBindViewHolder
+     * <p>
+     * 取消正在进行的拖拽、复原和爆炸，气泡回到中心显示新的数量，不回调状态监听。
+     * 数量的显示规则同 {@link #setCount(int)}。
+     *
+     * @param count 小于等于 0 时不显示气泡
+     */
+    public void bind(int count) {
+        mPostedCount.cancel();
+        cancelGesture();
+        initCenter(getWidth(), getHeight());
+        mCount = count;
+        mBubbleText = BubbleCountLabels.get(count, mMaxCount);
+        applyLabel(mBubbleText);
+        mSprite = null;
+        invalidate();
+    }
+
+    /**
+     * 解除绑定，用于列表回收时的 onViewRecycled
+     * <p>
+     * 取消正在进行的动画，把已经发生的状态回调发出去，
+     * 绘制资源还给共享的池，下次绑定绘制时再取出。
+     */
+    public void unbind() {
+        mPostedCount.cancel();
+        cancelGesture();
+        removeCallbacks(mFlushStateRunnable);
+        mStateDispatcher.flush();
+        releasePooledResources();
+    }
+
+    /**
+     * 停止触摸合并、帧时钟和爆炸效果，收回浮层并释放图层
+     * <p>
+     * 拖拽和复原中的气泡回到静止状态；正在爆炸的气泡直接炸完，已经消失的气泡保持消失，
+     * 不会在重新显示时复活。
+     */
+    private void cancelGesture() {
+        removeCallbacks(mApplyMoveRunnable);
+        mMoveCoalescer.cancel();
+        BubbleAnimationDriver.get().cancel(mAnimationClient);
+        mDismissEffect.stop();
+        releaseRenderLayer();
+        finishOverlayDrag();
+        int state = mSimulation.getState();
+        if (mSimulation.isExploding()) {
+            //消失已经回调过，只结束动画
+            mSimulation.finishDismiss();
+        } else if (state == STATE_DRAG || state == STATE_MOVE || mSimulation.isRestoring()) {
+            initCenter(getWidth(), getHeight());
+        }
+    }
+
+    private void releasePooledResources() {
+        if (mBubbleCanvas != null) {
+            BubbleViewPool.releaseCanvas(mBubbleCanvas);
+            mBubbleCanvas = null;
+        }
+    }
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
@@ -249,20 +366,10 @@ public class DragBubbleView extends View {
     }
 
     private void initCenter(int w, int h) {
-        mBubbleCenterX = w / 2;
-        mBubbleCenterY = h / 2;
-        setBubbleRect(mBubbleCenterX, mBubbleCenterY);
-        if (mBubbleText.length() <= 1) {
-            mCircleCenterX = mBubbleCenterX;
-            mCircleCenterY = mBubbleCenterY;
-        } else if (mBubbleText.length() > 1 && mBubbleText.length() <= 2) {
-            mCircleCenterX = (mBubble2RectF.left + mBubble2RectF.right) / 2;
-            mCircleCenterY = (mBubble2RectF.top + mBubble2RectF.bottom) / 2;
-        } else {
-            mCircleCenterX = (mBubble3RectF.left + mBubble3RectF.right) / 2;
-            mCircleCenterY = (mBubble3RectF.top + mBubble3RectF.bottom) / 2;
-        }
-        mState = STATE_DEFAULT;
+        //圆形和圆角矩形都以气泡圆心为中心
+        mSimulation.reset(w / 2, h / 2);
+        releaseRenderLayer();
+        finishOverlayDrag();
     }
 
     @Override
@@ -270,57 +377,52 @@ public class DragBubbleView extends View {
         switch (event.getAction()) {
             case MotionEvent.ACTION_DOWN:
                 getParent().requestDisallowInterceptTouchEvent(true);
-                if (mState != STATE_DISMISS) {
-                    mDistance = (float) Math.hypot(event.getX() - mBubbleCenterX, event.getY() -
-                            mBubbleCenterY);
-                    if (mDistance < mBubbleRadius + mMaxDistance / 4) {
-                        //当指尖坐标在圆内的时候，才认为是可拖拽的
-                        //一般气泡比较小，增加(mMaxDistance/4)像素是为了更轻松的拖拽
-                        mState = STATE_DRAG;
-                    } else {
-                        mState = STATE_DEFAULT;
+                //当指尖坐标在圆内的时候，才认为是可拖拽的，复原过程中再次按下则交给手指
+                if (mSimulation.down(event.getX(), event.getY())) {
+                    startOverlayDrag();
+                    applyRenderLayer();
+                    mMoveCoalescer.start(event.getEventTime(), event.getX(), event.getY());
+                    if (mMetrics != null) {
+                        mMetrics.onGestureStart(getThreadAllocCount());
                     }
                 }
                 break;
             case MotionEvent.ACTION_MOVE:
-                if (mState != STATE_DEFAULT) {
+                if (mSimulation.getState() != STATE_DEFAULT) {
                     getParent().requestDisallowInterceptTouchEvent(true);
-                    mBubbleCenterX = event.getX();
-                    mBubbleCenterY = event.getY();
-                    setBubbleRect(mBubbleCenterX, mBubbleCenterY);
-                    mDistance = (float) Math.hypot(mBubbleCenterX - mCircleCenterX, mBubbleCenterY -
-                            mCircleCenterY);
-                    if (mState == STATE_DRAG) {//如果可以拖拽
-                        //间距小于可黏连的最大距离
-                        //减去(mMaxDistance/4) 的像素大小，是为了让黏连小球半径到一个较小值快消失时直接消失
-                        if (mDistance < mMaxDistance - mMaxDistance / 4) {
-                            //使黏质小球半径渐渐变小
-                            mCircleRadius = mBubbleRadius - mDistance / 10;
-                            if (mOnBubbleStateListener != null) {
-                                mOnBubbleStateListener.onDrag();
-                            }
-                        } else {//间距大于可连接间距
-                            //改为移动状态
-                            mState = STATE_MOVE;
-                            if (mOnBubbleStateListener != null) {
-                                mOnBubbleStateListener.onMove();
-                            }
-                        }
+                    if (mMetrics != null) {
+                        mMetrics.onTouchEvent(event.getEventTime());
+                    }
+                    if (mTouchCoalescing) {
+                        queueMove(event);
+                    } else {
+                        mMoveCoalescer.onDirectMove();
+                        moveBubbleTo(event.getX(), event.getY());
                     }
-                    invalidate();
                 }
                 break;
             case MotionEvent.ACTION_UP:
                 getParent().requestDisallowInterceptTouchEvent(false);
-                if (mState == STATE_DRAG) {//正在拖拽时松开手指，气泡恢复原来的位置并颤动一下
-                    setBubbleRestoreAnim();
-                } else if (mState == STATE_MOVE) {
-                    if (mDistance < 2 * mBubbleRadius) {//如果移动状态下间距回到两倍半径以内，我们认为用户不想取消该气泡
-                        setBubbleRestoreAnim();
-                    } else {//气泡消失
-                        setBubbleDismissAnim();
-                    }
+                if (mMoveCoalescer.flush()) {
+                    //松手前把最后的位置应用上，不做预测
+                    removeCallbacks(mApplyMoveRunnable);
+                    moveBubbleTo(event.getX(), event.getY());
                 }
+                //拖拽中松手或间距回到两倍半径以内时复原，否则气泡消失
+                if (mSimulation.up() == BubbleSimulation.EVENT_DISMISS) {
+                    startDismissEffect(mExplosionRenderer);
+                    applyRenderLayer();
+                    dispatchState(BubbleSimulation.EVENT_DISMISS);
+                }
+                settleGesture();
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                getParent().requestDisallowInterceptTouchEvent(false);
+                //取消时丢掉没处理的移动，拖拽中的气泡复原
+                removeCallbacks(mApplyMoveRunnable);
+                mMoveCoalescer.cancel();
+                mSimulation.cancel();
+                settleGesture();
                 break;
             default:
                 break;
@@ -328,160 +430,668 @@ public class DragBubbleView extends View {
         return true;
     }
 
+    /**
+     * 手势结束后有动画时交给帧时钟，动画结束时再收回浮层和图层，没有动画时立即收回
+     */
+    private void settleGesture() {
+        if (mSimulation.isAnimating()) {
+            BubbleAnimationDriver.get().schedule(mAnimationClient);
+        } else {
+            releaseRenderLayer();
+            finishOverlayDrag();
+            if (mMetrics != null) {
+                mMetrics.onGestureEnd(getThreadAllocCount());
+            }
+        }
+    }
+
+    /**
+     * 手指移动到 (x, y) 时更新气泡位置、间距、黏质小球半径和状态
+     */
+    private void moveBubbleTo(float x, float y) {
+        int event = mSimulation.move(x, y);
+        if (event != BubbleSimulation.EVENT_NONE) {
+            applyRenderLayer();
+            dispatchState(event);
+        }
+        invalidateBubble();
+    }
+
+    /**
+     * 合并模式下只记录采样，下一帧开始时统一处理一次
+     */
+    private void queueMove(MotionEvent event) {
+        for (int i = 0, size = event.getHistorySize(); i < size; i++) {
+            mMoveCoalescer.addHistoricalSample(event.getHistoricalEventTime(i),
+                    event.getHistoricalX(i), event.getHistoricalY(i));
+        }
+        if (mMoveCoalescer.queue(event.getEventTime(), event.getX(), event.getY())) {
+            ViewCompat.postOnAnimation(this, mApplyMoveRunnable);
+        }
+    }
+
+    private final Runnable mApplyMoveRunnable = new Runnable() {
+        @Override
+        public void run() {
+            int state = mSimulation.getState();
+            if (state == STATE_DEFAULT || state == STATE_DISMISS) {
+                mMoveCoalescer.cancel();
+                return;
+            }
+            if (mMoveCoalescer.apply(SystemClock.uptimeMillis(), mPredicted)) {
+                moveBubbleTo(mPredicted[0], mPredicted[1]);
+            }
+        }
+    };
+
+    /**
+     * 打开后同一帧内的多个 ACTION_MOVE 只在下一帧开始时处理一次
+     */
+    public void setTouchCoalescingEnabled(boolean enabled) {
+        mTouchCoalescing = enabled;
+    }
+
+    /**
+     * 设置合并模式下的位置预测器，为 null 时直接使用最后一个采样
+     */
+    public void setMotionPredictor(@Nullable BubbleMotionPredictor motionPredictor) {
+        mMoveCoalescer.setPredictor(motionPredictor);
+    }
+
+    /**
+     * 收到的 ACTION_MOVE 个数
+     */
+    public int getMoveEventCount() {
+        return mMoveCoalescer.getEventCount();
+    }
+
+    /**
+     * 实际计算气泡位置和状态的次数，合并模式下每帧最多一次
+     */
+    public int getMoveApplyCount() {
+        return mMoveCoalescer.getApplyCount();
+    }
+
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
-        //画拖拽气泡
-        if (!TextUtils.isEmpty(mBubbleText)) {
-            if (mState != STATE_DISMISS) {
-                mBubblePaint.setColor(Color.RED);
-
-                if (mBubbleText.length() <= 1) {
-                    canvas.drawCircle(mBubbleCenterX, mBubbleCenterY, mBubbleRadius, mBubblePaint);
-                } else if (mBubbleText.length() > 1 && mBubbleText.length() <= 2) {
-                    canvas.drawRoundRect(mBubble2RectF, mBubbleRadius, mBubbleRadius, mBubblePaint);
-                } else {
-                    canvas.drawRoundRect(mBubble3RectF, mBubbleRadius, mBubbleRadius, mBubblePaint);
-                }
+        if (mDragOverlay == null) {
+            drawBubble(canvas);
+        }
+    }
+
+    /**
+     * 画出气泡，坐标系是本 View 的，交给浮层时由浮层平移后调用
+     */
+    void drawBubble(Canvas canvas) {
+        long drawStart = System.nanoTime();
+        if (mLabel == null || mSimulation.getState() != STATE_DEFAULT
+                || mSimulation.isExploding() || !drawSprite(canvas)) {
+            if (mBubbleCanvas == null) {
+                mBubbleCanvas = BubbleViewPool.acquireCanvas();
+                mBubbleCanvas.setTextPaint(mTextPaint);
+                mBubbleCanvas.setExplosionRenderer(mDismissEffect);
             }
-            if (mState == STATE_DRAG && mDistance < mMaxDistance - mMaxDistance / 4) {
-                //画黏质小圆
-                canvas.drawCircle(mCircleCenterX, mCircleCenterY, mCircleRadius, mBubblePaint);
-                //计算二阶贝塞尔曲线的起点，终点和控制点
-                calculateBezierCoordinate();
-                mBezierPath.reset();
-                mBezierPath.moveTo(mCircleStartX, mCircleStartY);
-                mBezierPath.quadTo(mControlX, mControlY, mBubbleEndX, mBubbleEndY);
-                mBezierPath.lineTo(mBubbleStartX, mBubbleStartY);
-                mBezierPath.quadTo(mControlX, mControlY, mCircleEndX, mCircleEndY);
-                mBezierPath.close();
-                canvas.drawPath(mBezierPath, mBubblePaint);
+            if (mQualityGovernor != null) {
+                mBubbleCanvas.setAntiAlias(!isInMotion() || mQualityGovernor.getLevel()
+                        < BubbleQualityGovernor.LEVEL_NO_ANTI_ALIAS);
             }
-            //画消息个数文本
-            if (mState != STATE_DISMISS && !TextUtils.isEmpty(mBubbleText)) {
-                mTextPaint.getTextBounds(mBubbleText, 0, mBubbleText.length(), mTextRect);
-                if (mBubbleText.length() <= 1) {
-                    canvas.drawText(mBubbleText,
-                            mBubbleCenterX - mTextRect.width() / 2,
-                            mBubbleCenterY + mTextRect.height() / 2,
-                            mTextPaint);
-                } else if (mBubbleText.length() > 1 && mBubbleText.length() <= 2) {
-                    canvas.drawText(mBubbleText,
-                            (mBubble2RectF.left + mBubble2RectF.right) / 2 - mTextRect.width() / 2,
-                            (mBubble2RectF.top + mBubble2RectF.bottom) / 2 + mTextRect.height() / 2,
-                            mTextPaint);
-                } else {
-                    canvas.drawText(mBubbleText,
-                            (mBubble3RectF.left + mBubble3RectF.right) / 2 - mTextRect.width() / 2,
-                            (mBubble3RectF.top + mBubble3RectF.bottom) / 2 + mTextRect.height() / 2,
-                            mTextPaint);
-                }
+            mBubbleCanvas.setCanvas(canvas);
+            mRenderer.draw(mBubbleCanvas, mSimulation);
+            mBubbleCanvas.setCanvas(null);
+        }
+        updateDirtyStats(canvas);
+        long drawNanos = System.nanoTime() - drawStart;
+        mLayerDrawStats.record(getLayerType(), drawNanos);
+        if (mQualityGovernor != null && isInMotion()) {
+            //级别变化由 mQualityApplier 应用
+            mQualityGovernor.onFrame(drawNanos);
+        }
+        if (mMetrics != null) {
+            mMetrics.onDraw(SystemClock.uptimeMillis(), drawNanos);
+        }
+    }
+
+    /**
+     * 静止状态下用位图缓存画出整个气泡
+     *
+     * @return 没有开启缓存或气泡太大无法缓存时返回 false
+     */
+    private boolean drawSprite(Canvas canvas) {
+        if (!mSpriteCacheEnabled) {
+            return false;
+        }
+        if (mSprite == null || !mSprite.isValid()) {
+            mSprite = BubbleSpriteCache.get().obtain(mBubbleColor, mBubbleRadius, mLabel,
+                    mTextPaint, getResources().getDisplayMetrics().density);
+            if (mSprite == null) {
+                return false;
             }
+        }
+        mSprite.draw(canvas, mSimulation.getBubbleX(), mSimulation.getBubbleY(), mSpriteRectF,
+                mSpritePaint);
+        return true;
+    }
+
+    /**
+     * 打开后静止的气泡从共享图集中一次 drawBitmap 画出，拖拽和动画时仍按矢量绘制
+     */
+    public void setSpriteCacheEnabled(boolean enabled) {
+        mSpriteCacheEnabled = enabled;
+        if (enabled && mSpritePaint == null) {
+            mSpritePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+            mSpriteRectF = new RectF();
+        }
+        mSprite = null;
+        invalidate();
+    }
 
-            if (mIsExplosionAnimStart && mCurrentExplosionIndex < mExplosionDrawables.length) {
-                mExplosionRect.set((int) (mBubbleCenterX - mBubbleRadius),
-                        (int) (mBubbleCenterY - mBubbleRadius),
-                        (int) (mBubbleCenterX + mBubbleRadius),
-                        (int) (mBubbleCenterY + mBubbleRadius));
-                canvas.drawBitmap(mExplosionBitmaps[mCurrentExplosionIndex], null,
-                        mExplosionRect, mExplosionPaint);
+    private void updateDirtyStats(Canvas canvas) {
+        //记录本帧绘制区域，下次重绘时和新区域合并
+        computeDrawBounds(mDrawBounds);
+        if (!mFrameDirtyBounds.isEmpty()) {
+            mLastFrameDirtyArea = (long) (mFrameDirtyBounds.width() * mFrameDirtyBounds.height());
+            mTotalDirtyArea += mLastFrameDirtyArea;
+            mDirtyFrameCount++;
+            if (mDebugInvalidation) {
+                canvas.drawRect(mFrameDirtyBounds, mDebugPaint);
+                int start = formatDigits(mLastFrameDirtyArea, mDebugDigits);
+                canvas.drawText(mDebugDigits, start, mDebugDigits.length - start,
+                        mFrameDirtyBounds.left, mFrameDirtyBounds.top, mDebugPaint);
             }
+            mFrameDirtyBounds.setEmpty();
         }
     }
 
-    private void calculateBezierCoordinate() {
-        //计算控制点坐标
-        mControlX = (mBubbleCenterX + mCircleCenterX) / 2;
-        mControlY = (mBubbleCenterY + mCircleCenterY) / 2;
-        //计算两条贝塞尔曲线的终点和起点
-        float sin = (mBubbleCenterY - mCircleCenterY) / mDistance;
-        float cos = (mBubbleCenterX - mCircleCenterX) / mDistance;
+    /**
+     * 把非负整数写到缓冲区末尾
+     *
+     * @return 第一个数字的下标
+     */
+    private static int formatDigits(long value, char[] out) {
+        int index = out.length;
+        do {
+            out[--index] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0 && index > 0);
+        return index;
+    }
 
-        mCircleStartX = mCircleCenterX - mCircleRadius * sin;
-        mCircleStartY = mCircleCenterY + mCircleRadius * cos;
+    /**
+     * 计算当前状态下气泡、黏质小球、贝塞尔曲线和爆炸图片覆盖的区域
+     * <p>
+     * 贝塞尔曲线的端点在两个圆上，控制点是两圆心的中点，曲线不会超出两圆的外接矩形。
+     */
+    private void computeDrawBounds(RectF out) {
+        out.setEmpty();
+        if (mLabel == null) {
+            return;
+        }
+        float bubbleX = mSimulation.getBubbleX();
+        float bubbleY = mSimulation.getBubbleY();
+        if (mSimulation.getState() != STATE_DISMISS) {
+            float halfWidth = BubbleDragRules.halfWidth(mBubbleRadius, mLabel.getShape());
+            out.union(bubbleX - halfWidth, bubbleY - mBubbleRadius,
+                    bubbleX + halfWidth, bubbleY + mBubbleRadius);
+        }
+        if (mSimulation.isNeckVisible()) {
+            float circleX = mSimulation.getCircleX();
+            float circleY = mSimulation.getCircleY();
+            float circleRadius = mSimulation.getCircleRadius();
+            out.union(circleX - circleRadius, circleY - circleRadius,
+                    circleX + circleRadius, circleY + circleRadius);
+        }
+        if (mSimulation.isExploding()) {
+            mDismissEffect.unionBounds(out);
+        }
+        if (!out.isEmpty()) {
+            //抗锯齿边缘和位图缓存的透明边
+            out.inset(-2, -2);
+        }
+    }
+
+    /**
+     * 只重绘上一帧和本帧气泡覆盖的区域
+     */
+    private void invalidateBubble() {
+        computeDrawBounds(mNextBounds);
+        mNextBounds.union(mDrawBounds);
+        if (mNextBounds.isEmpty()) {
+            return;
+        }
+        mFrameDirtyBounds.union(mNextBounds);
+        mNextBounds.roundOut(mDirtyRect);
+        if (mDragOverlay != null) {
+            mDragOverlay.invalidateHost(this, mDirtyRect);
+        } else {
+            invalidate(mDirtyRect);
+        }
+    }
+
+    /**
+     * 打开后按下气泡时把气泡、黏质小球和文本交给窗口浮层绘制，复原或爆炸结束后交还
+     * <p>
+     * 气泡可以拖出父布局而不需要 clipChildren="false"，拖拽期间只重绘浮层，
+     * 所在的列表不会被 invalidate。交给浮层时不使用 {@link #setRenderPolicy(int)} 的图层。
+     */
+    public void setOverlayDragEnabled(boolean enabled) {
+        mOverlayDrag = enabled;
+    }
+
+    private void startOverlayDrag() {
+        if (!mOverlayDrag || mDragOverlay != null) {
+            return;
+        }
+        mDragOverlay = BubbleDragOverlay.obtain(this);
+        if (mDragOverlay == null) {
+            return;
+        }
+        mDragOverlay.attach(this);
+        //擦掉本 View 上的气泡，之后由浮层绘制
+        computeDrawBounds(mNextBounds);
+        mNextBounds.roundOut(mDirtyRect);
+        invalidate(mDirtyRect);
+        mDragOverlay.invalidateHost(this, mDirtyRect);
+    }
+
+    /**
+     * 动画结束后从浮层收回气泡
+     */
+    private void finishOverlayDrag() {
+        if (mDragOverlay == null) {
+            return;
+        }
+        mDrawBounds.roundOut(mDirtyRect);
+        mDragOverlay.detach(this, mDirtyRect);
+        mDragOverlay = null;
+        invalidateBubble();
+    }
 
-        mBubbleEndX = mBubbleCenterX - mBubbleRadius * sin;
-        mBubbleEndY = mBubbleCenterY + mBubbleRadius * cos;
+    /**
+     * 调试用：在重绘区域上画出边框和面积
+     */
+    public void setDebugInvalidationEnabled(boolean enabled) {
+        mDebugInvalidation = enabled;
+        if (enabled && mDebugPaint == null) {
+            mDebugPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            mDebugPaint.setColor(Color.GREEN);
+            mDebugPaint.setStyle(Paint.Style.STROKE);
+            mDebugPaint.setTextSize(mTextSize);
+            //long 最多 19 位
+            mDebugDigits = new char[19];
+        }
+        invalidate();
+    }
+
+    /**
+     * 上一帧重绘区域的面积(px)
+     */
+    public long getLastFrameDirtyArea() {
+        return mLastFrameDirtyArea;
+    }
 
-        mBubbleStartX = mBubbleCenterX + mBubbleRadius * sin;
-        mBubbleStartY = mBubbleCenterY - mBubbleRadius * cos;
+    /**
+     * 累计重绘面积(px)
+     */
+    public long getTotalDirtyArea() {
+        return mTotalDirtyArea;
+    }
 
-        mCircleEndX = mCircleCenterX + mCircleRadius * sin;
-        mCircleEndY = mCircleCenterY - mCircleRadius * cos;
+    /**
+     * 累计重绘帧数
+     */
+    public int getDirtyFrameCount() {
+        return mDirtyFrameCount;
     }
 
     /**
-     * 设置气泡复原的动画
+     * 设置气泡消失时的爆炸效果
+     *
+     * @param explosionRenderer 为 null 时恢复默认的逐帧爆炸图片，
+     *                          可以换成 {@link ParticleExplosionRenderer}
      */
-    private void setBubbleRestoreAnim() {
-        ValueAnimator animator = ValueAnimator.ofObject(new PointFEvaluator(),
-                new PointF(mBubbleCenterX, mBubbleCenterY),
-                new PointF(mCircleCenterX, mCircleCenterY));
-        animator.setDuration(500);
-        //使用OvershootInterpolator差值器达到颤动效果
-//        animator.setInterpolator(new OvershootInterpolator(5));
-        animator.setInterpolator(new TimeInterpolator() {
-            @Override
-            public float getInterpolation(float input) {
-                //http://inloop.github.io/interpolator/
-                float f = 0.571429f;
-                return (float) (Math.pow(2, -4 * input) * Math.sin((input - f / 4) * (2 * Math
-                        .PI) / f) + 1);
+    public void setExplosionRenderer(@Nullable ExplosionRenderer explosionRenderer) {
+        boolean replacingActive = mDismissEffect == mExplosionRenderer;
+        mExplosionRenderer = explosionRenderer != null ? explosionRenderer
+                : new BitmapExplosionRenderer(mExplosionFrameCache);
+        if (mQualityGovernor != null) {
+            applyQualityLevel(mQualityGovernor.getLevel());
+        }
+        if (!replacingActive) {
+            //正在淡出，不打断
+            return;
+        }
+        mDismissEffect.stop();
+        if (mSimulation.isExploding()) {
+            startDismissEffect(mExplosionRenderer);
+        } else {
+            mDismissEffect = mExplosionRenderer;
+            if (mBubbleCanvas != null) {
+                mBubbleCanvas.setExplosionRenderer(mExplosionRenderer);
             }
-        });
-        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                PointF pointF = (PointF) animation.getAnimatedValue();
-                mBubbleCenterX = pointF.x;
-                mBubbleCenterY = pointF.y;
-                setBubbleRect(mBubbleCenterX, mBubbleCenterY);
-                invalidate();
+        }
+    }
+
+    /**
+     * 在气泡当前位置开始消失效果
+     */
+    private void startDismissEffect(ExplosionRenderer effect) {
+        mDismissEffect = effect;
+        if (mBubbleCanvas != null) {
+            mBubbleCanvas.setExplosionRenderer(effect);
+        }
+        effect.start(mSimulation.getBubbleX(), mSimulation.getBubbleY(), mBubbleRadius,
+                mBubbleColor);
+    }
+
+    /**
+     * 不经过拖拽直接让气泡消失，不回调 onDismiss，由 {@link BubbleDismissCascade} 统一通知
+     *
+     * @param fade 为 true 时只淡出，不播放爆炸效果
+     * @return 没有显示气泡或已经在消失时返回 false
+     */
+    @Override
+    public boolean dismissQuietly(boolean fade) {
+        if (mLabel == null || mSimulation.getState() == STATE_DISMISS) {
+            return false;
+        }
+        cancelGesture();
+        mSimulation.dismiss();
+        if (fade) {
+            if (mFadeEffect == null) {
+                mFadeEffect = new FadeExplosionRenderer();
             }
-        });
-
-        animator.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                super.onAnimationEnd(animation);
-                mState = STATE_DEFAULT;
-                if (mOnBubbleStateListener != null) {
-                    //动画结束后状态改为默认
-                    mOnBubbleStateListener.onRestore();
+            startDismissEffect(mFadeEffect);
+        } else {
+            startDismissEffect(mExplosionRenderer);
+        }
+        applyRenderLayer();
+        BubbleAnimationDriver.get().schedule(mAnimationClient);
+        invalidateBubble();
+        return true;
+    }
+
+    /**
+     * 是否正在播放消失效果
+     */
+    @Override
+    public boolean isDismissAnimating() {
+        return mSimulation.isExploding();
+    }
+
+    /**
+     * 打开后拖拽时的黏质小球和贝塞尔曲线展开成三角形，用一次 drawVertices 画出，
+     * 分段数随半径和弯曲程度变化。硬件加速在 API 29 之前不支持 drawVertices，
+     * 这时仍用路径绘制，可配合软件层使用。
+     */
+    public void setNeckMeshEnabled(boolean enabled) {
+        mRenderer.setMeshEnabled(enabled);
+        invalidateBubble();
+    }
+
+    /**
+     * 设置拖拽、复原和消失期间使用的图层，静止时总是释放图层以节省显存
+     * <p>
+     * 图层会把内容裁剪到 View 自身的范围内，拖出 View 的气泡将看不到，
+     * 只适合 View 足够大(例如铺满父布局)的场景。硬件层在内容每帧都变化时仍要整层重画，
+     * 是否划算用 {@link #getLayerDrawTimeNanos(int)} 对比各模式的耗时。
+     *
+     * @param renderPolicy {@link #RENDER_POLICY_NONE}、{@link #RENDER_POLICY_SOFTWARE}
+     *                     或 {@link #RENDER_POLICY_HARDWARE}
+     */
+    public void setRenderPolicy(int renderPolicy) {
+        if (renderPolicy < RENDER_POLICY_NONE || renderPolicy > RENDER_POLICY_HARDWARE) {
+            throw new IllegalArgumentException("Unknown render policy: " + renderPolicy);
+        }
+        mRenderPolicy = renderPolicy;
+        if (mRenderLayerApplied) {
+            mRenderLayerApplied = false;
+            applyRenderLayer();
+        }
+    }
+
+    public int getRenderPolicy() {
+        return mRenderPolicy;
+    }
+
+    /**
+     * 进入拖拽、移动或消失时按策略设置图层，已设置时不重复调用
+     */
+    private void applyRenderLayer() {
+        if (mRenderLayerApplied || mDragOverlay != null) {
+            return;
+        }
+        mRenderLayerApplied = true;
+        if (getLayerType() != mRenderPolicy) {
+            setLayerType(mRenderPolicy, null);
+        }
+    }
+
+    /**
+     * 回到静止状态时释放图层
+     */
+    private void releaseRenderLayer() {
+        if (!mRenderLayerApplied) {
+            return;
+        }
+        mRenderLayerApplied = false;
+        if (getLayerType() != LAYER_TYPE_NONE) {
+            setLayerType(LAYER_TYPE_NONE, null);
+        }
+    }
+
+    /**
+     * 在指定图层类型下 onDraw 的累计耗时(ns)
+     * <p>
+     * 硬件层下 onDraw 只录制绘制命令，不包括 GPU 上的光栅化和合成。
+     *
+     * @param layerType {@link View#LAYER_TYPE_NONE}、{@link View#LAYER_TYPE_SOFTWARE}
+     *                  或 {@link View#LAYER_TYPE_HARDWARE}
+     */
+    public long getLayerDrawTimeNanos(int layerType) {
+        return mLayerDrawStats.getTotalNanos(layerType);
+    }
+
+    /**
+     * 在指定图层类型下 onDraw 的单次最大耗时(ns)
+     */
+    public long getLayerDrawMaxNanos(int layerType) {
+        return mLayerDrawStats.getMaxNanos(layerType);
+    }
+
+    /**
+     * 在指定图层类型下 onDraw 的次数
+     */
+    public int getLayerDrawCount(int layerType) {
+        return mLayerDrawStats.getCount(layerType);
+    }
+
+    public void resetLayerDrawStats() {
+        mLayerDrawStats.reset();
+    }
+
+    /**
+     * 设置复原时的颤动曲线
+     *
+     * @param decay  衰减系数，越大颤动停得越快
+     * @param period 振动周期(以动画进度计)
+     */
+    public void setRestoreSpring(float decay, float period) {
+        mSimulation.setRestoreSpring(BubbleInterpolators.spring(decay, period,
+                BubbleInterpolators.DEFAULT_SAMPLES));
+    }
+
+    /**
+     * 设置复原和消失动画的时长，默认都是 500ms
+     */
+    public void setAnimationDurations(long restoreMillis, long dismissMillis) {
+        mSimulation.setDurations(restoreMillis, dismissMillis);
+    }
+
+    /**
+     * 复原和消失动画挂在进程共享的帧时钟上，只负责按帧推进模拟器
+     */
+    private final BubbleAnimationSlots.Client mAnimationClient =
+            new BubbleAnimationSlots.Client() {
+                @Override
+                boolean onTick(long deltaMillis) {
+                    int event = mSimulation.step(deltaMillis);
+                    if (mMetrics != null) {
+                        mMetrics.onAnimationFrame(deltaMillis);
+                    }
+                    if (event == BubbleSimulation.EVENT_RESTORE) {
+                        //动画结束后状态改为默认
+                        dispatchState(event);
+                    }
+                    return mSimulation.isAnimating();
                 }
-            }
-        });
-        animator.start();
+
+                @Override
+                void onInvalidate(boolean finished) {
+                    if (finished) {
+                        mDismissEffect.stop();
+                        releaseRenderLayer();
+                        finishOverlayDrag();
+                        if (mMetrics != null) {
+                            mMetrics.onGestureEnd(getThreadAllocCount());
+                        }
+                    }
+                    invalidateBubble();
+                }
+            };
+
+    /**
+     * 开启或关闭帧耗时和卡顿统计，关闭时丢弃已有数据
+     * <p>
+     * 开启后记录触摸到绘制的延迟、onDraw 耗时、动画掉帧和每次手势的分配次数，
+     * 用 {@link #getMetricsSnapshot()} 导出。分配次数只在
+     * {@link #setAllocationCountingEnabled(boolean)} 打开时统计，否则为 0。
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        if (enabled == (mMetrics != null)) {
+            return;
+        }
+        if (enabled) {
+            mMetrics = new BubbleMetrics();
+            mMetrics.setRefreshRate(getRefreshRate());
+        } else {
+            mMetrics = null;
+        }
     }
 
     /**
-     * 设置气泡消失的动画
+     * 开启或关闭每次手势的分配次数统计，只用于调试
+     * <p>
+     * 使用运行时已废弃的 {@link Debug#startAllocCounting()}，这是整个进程的开关：
+     * 打开后所有线程的每次对象分配都要额外计数，会拖慢整个应用，不要在发布版本中打开。
+     * 只对开启了 {@link #setMetricsEnabled(boolean)} 的 View 生效，只在主线程调用。
      */
-    private void setBubbleDismissAnim() {
-        mState = STATE_DISMISS;
-        mIsExplosionAnimStart = true;
-        if (mOnBubbleStateListener != null) {
-            mOnBubbleStateListener.onDismiss();
-        }
-        ValueAnimator animator = ValueAnimator.ofInt(0, mExplosionDrawables.length);
-        animator.setInterpolator(new LinearInterpolator());
-        animator.setDuration(500);
-        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                mCurrentExplosionIndex = (int) animation.getAnimatedValue();
-                invalidate();
-            }
-        });
+    @SuppressWarnings("deprecation")
+    public static void setAllocationCountingEnabled(boolean enabled) {
+        if (enabled == sAllocationCounting) {
+            return;
+        }
+        sAllocationCounting = enabled;
+        if (enabled) {
+            Debug.startAllocCounting();
+        } else {
+            Debug.stopAllocCounting();
+        }
+    }
 
-        animator.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                super.onAnimationEnd(animation);
-                mIsExplosionAnimStart = false;
-            }
-        });
-        animator.start();
+    /**
+     * 导出当前的统计数据
+     *
+     * @return 未开启统计时返回 null
+     */
+    @Nullable
+    public BubbleMetricsSnapshot getMetricsSnapshot() {
+        return mMetrics == null ? null : mMetrics.snapshot();
+    }
+
+    /**
+     * 清空统计数据
+     */
+    public void resetMetrics() {
+        if (mMetrics != null) {
+            mMetrics.reset();
+        }
+    }
+
+    private float getRefreshRate() {
+        WindowManager windowManager = (WindowManager) getContext().getSystemService(
+                Context.WINDOW_SERVICE);
+        return windowManager.getDefaultDisplay().getRefreshRate();
+    }
+
+    /**
+     * 开启或关闭自动质量调节，关闭时恢复完整质量
+     * <p>
+     * 开启后根据拖拽和动画中 onDraw 的耗时逐级降低质量：运动中关闭抗锯齿、
+     * 贝塞尔曲线画成直线、爆炸效果减半、不画爆炸效果，耗时降下来后再逐级恢复。
+     * 级别和变化通过 {@link #getQualityGovernor()} 查看和监听。
+     */
+    public void setQualityGovernorEnabled(boolean enabled) {
+        if (enabled == (mQualityGovernor != null)) {
+            return;
+        }
+        if (enabled) {
+            mQualityGovernor = new BubbleQualityGovernor(getRefreshRate());
+            mQualityGovernor.setLevelApplier(mQualityApplier);
+        } else {
+            mQualityGovernor.setLevelApplier(null);
+            mQualityGovernor = null;
+        }
+        applyQualityLevel(BubbleQualityGovernor.LEVEL_FULL);
+        if (!enabled && mBubbleCanvas != null) {
+            mBubbleCanvas.setAntiAlias(true);
+        }
+    }
+
+    /**
+     * 帧耗时和 {@link BubbleQualityGovernor#setMaxLevel(int)} 引起的级别变化都立即应用
+     */
+    private final BubbleQualityGovernor.OnQualityChangeListener mQualityApplier =
+            new BubbleQualityGovernor.OnQualityChangeListener() {
+                @Override
+                public void onQualityChanged(int oldLevel, int newLevel) {
+                    applyQualityLevel(newLevel);
+                    invalidateBubble();
+                }
+            };
+
+    /**
+     * @return 未开启自动质量调节时返回 null
+     */
+    @Nullable
+    public BubbleQualityGovernor getQualityGovernor() {
+        return mQualityGovernor;
+    }
+
+    /**
+     * 拖拽中或正在播放动画，静止时总是完整质量
+     */
+    private boolean isInMotion() {
+        return mSimulation.getState() != STATE_DEFAULT || mSimulation.isAnimating();
+    }
+
+    /**
+     * 把质量级别应用到绘制逻辑和爆炸效果，抗锯齿在每帧绘制前按是否运动设置
+     */
+    private void applyQualityLevel(int level) {
+        mRenderer.setSimplifiedNeck(level >= BubbleQualityGovernor.LEVEL_SIMPLE_NECK);
+        mRenderer.setExplosionEnabled(level < BubbleQualityGovernor.LEVEL_NO_EXPLOSION);
+        boolean reduced = level >= BubbleQualityGovernor.LEVEL_REDUCED_EXPLOSION;
+        if (mExplosionRenderer instanceof BitmapExplosionRenderer) {
+            ((BitmapExplosionRenderer) mExplosionRenderer).setReducedQuality(reduced);
+        } else if (mExplosionRenderer instanceof ParticleExplosionRenderer) {
+            ((ParticleExplosionRenderer) mExplosionRenderer).setReducedQuality(reduced);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static long getThreadAllocCount() {
+        return sAllocationCounting ? Debug.getThreadAllocCount() : 0;
     }
 
     public interface OnBubbleStateListener {
@@ -507,28 +1117,188 @@ public class DragBubbleView extends View {
     }
 
     private OnBubbleStateListener mOnBubbleStateListener;
+    private final BubbleStateDispatcher mStateDispatcher = new BubbleStateDispatcher();
+    private final Runnable mFlushStateRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mStateDispatcher.flush();
+        }
+    };
 
+    /**
+     * 状态回调在下一帧开始时统一分发，同一帧内连续的 onDrag 只回调一次
+     */
+    private void dispatchState(int event) {
+        if (mStateDispatcher.post(event)) {
+            ViewCompat.postOnAnimation(this, mFlushStateRunnable);
+        }
+    }
+
+    /**
+     * 设置唯一的状态监听，替换之前通过本方法设置的监听，
+     * 不影响 {@link #addOnBubbleStateListener(OnBubbleStateListener)} 添加的监听
+     */
     public void setOnBubbleStateListener(OnBubbleStateListener onBubbleStateListener) {
+        if (mOnBubbleStateListener != null) {
+            mStateDispatcher.removeListener(mOnBubbleStateListener);
+        }
         mOnBubbleStateListener = onBubbleStateListener;
+        if (onBubbleStateListener != null) {
+            mStateDispatcher.addListener(onBubbleStateListener);
+        }
+    }
+
+    public void addOnBubbleStateListener(OnBubbleStateListener listener) {
+        mStateDispatcher.addListener(listener);
+    }
+
+    public void removeOnBubbleStateListener(OnBubbleStateListener listener) {
+        mStateDispatcher.removeListener(listener);
+    }
+
+    /**
+     * 设置状态回调所在的 Executor，用于耗时的监听，为 null 时在主线程回调
+     */
+    public void setStateListenerExecutor(@Nullable Executor executor) {
+        mStateDispatcher.setExecutor(executor);
+    }
+
+    public void setText(String text) {
+        mCount = 0;
+        updateText(text);
+    }
+
+    /**
+     * 显示未读数，超过上限时显示 "上限+"
+     * <p>
+     * 文本来自共享的表，不会每次格式化，显示的内容不变时不重绘。
+     *
+     * @param count 小于等于 0 时不显示气泡
+     */
+    public void setCount(int count) {
+        mCount = count;
+        updateText(BubbleCountLabels.get(count, mMaxCount));
+    }
+
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * 在任意线程更新未读数，不加锁
+     * <p>
+     * 只保留最新的值，在下一帧开始时于主线程应用一次，效果同 {@link #setCount(int)}。
+     * 一帧内的多次调用只 post 一次，被覆盖的次数见 {@link #getConflatedCountUpdates()}。
+     * 之后在主线程调用 {@link #bind(int)} 或 {@link #unbind()} 会丢弃还没应用的值。
+     */
+    public void postCount(int count) {
+        if (mPostedCount.post(count)) {
+            sMainHandler.post(mScheduleCountRunnable);
+        }
+    }
+
+    /**
+     * 通过 {@link #postCount(int)} 提交的次数
+     */
+    public int getPostedCountUpdates() {
+        return mPostedCount.getPostCount();
     }
 
-    private class PointFEvaluator implements TypeEvaluator<PointF> {
+    /**
+     * 实际应用到气泡上的次数，每帧最多一次
+     */
+    public int getAppliedCountUpdates() {
+        return mPostedCount.getApplyCount();
+    }
+
+    /**
+     * 被后来的值覆盖而没有单独应用的次数
+     */
+    public int getConflatedCountUpdates() {
+        return mPostedCount.getConflatedCount();
+    }
+
+    /**
+     * 已经在主线程，等到下一帧开始时应用
+     */
+    private final Runnable mScheduleCountRunnable = new Runnable() {
+        @Override
+        public void run() {
+            ViewCompat.postOnAnimation(DragBubbleView.this, mApplyCountRunnable);
+        }
+    };
+
+    private final Runnable mApplyCountRunnable = new Runnable() {
         @Override
-        public PointF evaluate(float fraction, PointF startValue, PointF endValue) {
-            float x = startValue.x + (endValue.x - startValue.x) * fraction;
-            float y = startValue.y + (endValue.y - startValue.y) * fraction;
-            return new PointF(x, y);
+        public void run() {
+            int count = mPostedCount.take(Integer.MIN_VALUE);
+            //已被 bind 或 unbind 丢弃时什么都不做
+            if (count != Integer.MIN_VALUE) {
+                setCount(count);
+            }
+        }
+    };
+
+    /**
+     * 设置未读数的显示上限，默认 99
+     */
+    public void setMaxCount(int maxCount) {
+        if (maxCount <= 0) {
+            throw new IllegalArgumentException("maxCount must be positive: " + maxCount);
+        }
+        mMaxCount = maxCount;
+        if (mCount > 0) {
+            updateText(BubbleCountLabels.get(mCount, maxCount));
         }
     }
 
+    public int getMaxCount() {
+        return mMaxCount;
+    }
 
-    public void setText(String text) {
+    /**
+     * 文本变化时更新形状和偏移并重绘，文本相同时形状也相同，什么都不做
+     */
+    private void updateText(String text) {
+        if (TextUtils.equals(text, mBubbleText)) {
+            return;
+        }
         mBubbleText = text;
-        invalidate();
+        applyLabel(text);
+        mSprite = null;
+        invalidateBubble();
+    }
+
+    /**
+     * 设置文本字号
+     *
+     * @param textSize 字号(px)
+     */
+    public void setTextSize(float textSize) {
+        mTextSize = textSize;
+        mTextPaint.setTextSize(textSize);
+        mLabelCache = BubbleLabelCache.get(textSize);
+        applyLabel(mBubbleText);
+        mSprite = null;
+        invalidateBubble();
+    }
+
+    /**
+     * 取出文本的测量结果并交给绘制逻辑
+     */
+    private void applyLabel(String text) {
+        mLabel = TextUtils.isEmpty(text) ? null : mLabelCache.get(text);
+        if (mLabel == null) {
+            mRenderer.setLabel(null, BubbleDragRules.SHAPE_CIRCLE, 0, 0);
+        } else {
+            mRenderer.setLabel(mLabel.getText(), mLabel.getShape(), mLabel.getOffsetX(),
+                    mLabel.getOffsetY());
+        }
     }
 
     public void reCreate() {
+        cancelGesture();
         initCenter(getWidth(), getHeight());
-        invalidate();
+        invalidateBubble();
     }
 }
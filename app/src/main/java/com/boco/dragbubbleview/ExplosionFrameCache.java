@@ -0,0 +1,271 @@
+package com.boco.dragbubbleview;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Process;
+import android.util.LruCache;
+
+import java.util.HashSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 气泡爆炸帧的进程级共享缓存
+ * <p>
+ * 所有气泡共用同一份解码结果：按气泡实际尺寸采样解码，以字节数为上限做 LRU 淘汰，
+ * 最后一个引用释放时清空缓存。解码在后台线程进行，可以在气泡显示时
+ * {@link #prefetch(int)}，消失时用 {@link #peekFrames(int)} 取结果，
+ * 还没解码完时由调用方画简单的替代动画，主线程不会等待解码。
+ * <p>
+ * 只在有引用(已 {@link #acquire()})时缓存：没有引用时不预解码，同步解码的结果不保留，
+ * 释放前提交的解码完成后直接丢弃，最后一个引用释放后不会再有帧留在内存中。
+ */
+public final class ExplosionFrameCache {
+
+    /**
+     * 气泡爆炸的图片ID
+     */
+    private static final int[] EXPLOSION_DRAWABLES = {R.mipmap.explosion_one,
+            R.mipmap.explosion_two,
+            R.mipmap.explosion_three,
+            R.mipmap.explosion_four,
+            R.mipmap.explosion_five};
+
+    /**
+     * 爆炸帧数
+     */
+    public static final int FRAME_COUNT = EXPLOSION_DRAWABLES.length;
+
+    /**
+     * 默认缓存上限 1MB
+     */
+    private static final int DEFAULT_MAX_BYTES = 1024 * 1024;
+
+    private static ExplosionFrameCache sInstance;
+
+    /**
+     * 所有尺寸共用一个低优先级的解码线程
+     */
+    private static final ThreadFactory DECODE_THREAD_FACTORY = new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable r) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    r.run();
+                }
+            }, "ExplosionFrameDecoder");
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
+
+    private final Resources mResources;
+    /**
+     * key 为目标边长(px)，value 为该尺寸下的全部爆炸帧
+     */
+    private final LruCache<Integer, Bitmap[]> mFrames;
+    /**
+     * 正在后台解码的尺寸
+     */
+    private final HashSet<Integer> mPendingSizes = new HashSet<>();
+    private Executor mDecodeExecutor;
+    /**
+     * 引用计数，为 0 时释放全部帧
+     */
+    private int mRefCount;
+    /**
+     * 每次清空缓存加一，解码完成时代数变了说明期间被清空过，结果丢弃
+     */
+    private int mEvictGeneration;
+    private int mHitCount;
+    private int mMissCount;
+    private int mPrefetchCount;
+
+    private ExplosionFrameCache(Context context, int maxBytes) {
+        mResources = context.getApplicationContext().getResources();
+        mFrames = new LruCache<Integer, Bitmap[]>(maxBytes) {
+            @Override
+            protected int sizeOf(Integer key, Bitmap[] value) {
+                int bytes = 0;
+                for (Bitmap bitmap : value) {
+                    bytes += bitmap.getByteCount();
+                }
+                return bytes;
+            }
+        };
+    }
+
+    public static synchronized ExplosionFrameCache get(Context context) {
+        if (sInstance == null) {
+            sInstance = new ExplosionFrameCache(context, DEFAULT_MAX_BYTES);
+        }
+        return sInstance;
+    }
+
+    public synchronized void acquire() {
+        mRefCount++;
+    }
+
+    public synchronized void release() {
+        if (mRefCount > 0 && --mRefCount == 0) {
+            mFrames.evictAll();
+            mPendingSizes.clear();
+            mEvictGeneration++;
+        }
+    }
+
+    /**
+     * 获取指定边长的爆炸帧，未命中时同步解码
+     * <p>
+     * 会阻塞调用线程，主线程上应使用 {@link #peekFrames(int)}。没有引用时解码结果不缓存。
+     *
+     * @param size 目标边长(px)，一般为气泡直径
+     */
+    public synchronized Bitmap[] getFrames(int size) {
+        size = Math.max(size, 1);
+        Integer key = size;
+        Bitmap[] frames = mFrames.get(key);
+        if (frames != null) {
+            mHitCount++;
+            return frames;
+        }
+        mMissCount++;
+        frames = decodeFrames(size);
+        if (mRefCount > 0) {
+            mFrames.put(key, frames);
+        }
+        return frames;
+    }
+
+    /**
+     * 获取已解码的爆炸帧，不阻塞
+     *
+     * @param size 目标边长(px)，一般为气泡直径
+     * @return 还没解码完时返回 null，并在后台开始解码
+     */
+    public Bitmap[] peekFrames(int size) {
+        size = Math.max(size, 1);
+        synchronized (this) {
+            Bitmap[] frames = mFrames.get(size);
+            if (frames != null) {
+                mHitCount++;
+                return frames;
+            }
+            mMissCount++;
+        }
+        prefetch(size);
+        return null;
+    }
+
+    /**
+     * 在后台解码指定边长的爆炸帧，已缓存、正在解码或没有引用时直接返回
+     *
+     * @param size 目标边长(px)，一般为气泡直径
+     */
+    public void prefetch(int size) {
+        final int target = Math.max(size, 1);
+        final int generation;
+        Executor executor;
+        synchronized (this) {
+            if (mRefCount == 0 || mFrames.get(target) != null || !mPendingSizes.add(target)) {
+                return;
+            }
+            generation = mEvictGeneration;
+            if (mDecodeExecutor == null) {
+                mDecodeExecutor = Executors.newSingleThreadExecutor(DECODE_THREAD_FACTORY);
+            }
+            mPrefetchCount++;
+            executor = mDecodeExecutor;
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Bitmap[] frames = null;
+                try {
+                    frames = decodeFrames(target);
+                } finally {
+                    synchronized (ExplosionFrameCache.this) {
+                        //解码期间被清空过：同尺寸的新解码由新的代数负责，结果不留
+                        if (generation == mEvictGeneration) {
+                            mPendingSizes.remove(target);
+                            if (frames != null && mRefCount > 0) {
+                                mFrames.put(target, frames);
+                            }
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    private Bitmap[] decodeFrames(int size) {
+        Bitmap[] frames = new Bitmap[FRAME_COUNT];
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            frames[i] = decodeFrame(EXPLOSION_DRAWABLES[i], size);
+        }
+        return frames;
+    }
+
+    private Bitmap decodeFrame(int resId, int size) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(mResources, resId, options);
+        int sampleSize = 1;
+        //采样后的边长不小于目标边长，避免放大失真
+        while (options.outWidth / (sampleSize * 2) >= size
+                && options.outHeight / (sampleSize * 2) >= size) {
+            sampleSize *= 2;
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        Bitmap bitmap = BitmapFactory.decodeResource(mResources, resId, options);
+        if (bitmap.getWidth() > size || bitmap.getHeight() > size) {
+            Bitmap scaled = Bitmap.createScaledBitmap(bitmap, size, size, true);
+            if (scaled != bitmap) {
+                bitmap.recycle();
+            }
+            bitmap = scaled;
+        }
+        return bitmap;
+    }
+
+    /**
+     * 缓存命中次数
+     */
+    public synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * 缓存未命中(需要解码或使用替代动画)次数
+     */
+    public synchronized int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * 提交到后台解码的次数
+     */
+    public synchronized int getPrefetchCount() {
+        return mPrefetchCount;
+    }
+
+    /**
+     * 当前缓存占用字节数
+     */
+    public synchronized int getByteCount() {
+        return mFrames.size();
+    }
+
+    /**
+     * 缓存字节上限
+     */
+    public synchronized int getMaxByteCount() {
+        return mFrames.maxSize();
+    }
+}
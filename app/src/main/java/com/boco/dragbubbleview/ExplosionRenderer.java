@@ -0,0 +1,36 @@
+package com.boco.dragbubbleview;
+
+import android.graphics.Canvas;
+import android.graphics.RectF;
+
+/**
+ * 气泡消失时的爆炸效果
+ * <p>
+ * 每次消失调用一次 {@link #start(float, float, float, int)}，之后每帧按动画进度
+ * {@link #draw(Canvas, float)}。实现应在 start 时准备好所需的数据，draw 时不创建对象。
+ */
+public interface ExplosionRenderer {
+
+    /**
+     * 开始一次爆炸
+     *
+     * @param radius 气泡半径
+     * @param color  气泡颜色
+     */
+    void start(float centerX, float centerY, float radius, int color);
+
+    /**
+     * @param progress 动画进度 [0, 1)
+     */
+    void draw(Canvas canvas, float progress);
+
+    /**
+     * 把本次爆炸全程可能画到的区域合并到 out
+     */
+    void unionBounds(RectF out);
+
+    /**
+     * 爆炸结束，释放不再需要的数据
+     */
+    void stop();
+}
@@ -0,0 +1,45 @@
+package com.boco.dragbubbleview;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+/**
+ * 最便宜的消失效果：逐渐缩小并变淡的圆，批量清除超出特效预算时使用
+ */
+final class FadeExplosionRenderer implements ExplosionRenderer {
+
+    private final Paint mPaint;
+    private float mCenterX;
+    private float mCenterY;
+    private float mRadius;
+    private int mColor;
+
+    FadeExplosionRenderer() {
+        mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mPaint.setStyle(Paint.Style.FILL);
+    }
+
+    @Override
+    public void start(float centerX, float centerY, float radius, int color) {
+        mCenterX = centerX;
+        mCenterY = centerY;
+        mRadius = radius;
+        mColor = color;
+    }
+
+    @Override
+    public void draw(Canvas canvas, float progress) {
+        BitmapExplosionRenderer.drawFallback(canvas, mPaint, mColor, progress, mCenterX,
+                mCenterY, mRadius);
+    }
+
+    @Override
+    public void unionBounds(RectF out) {
+        out.union(mCenterX - mRadius, mCenterY - mRadius, mCenterX + mRadius, mCenterY + mRadius);
+    }
+
+    @Override
+    public void stop() {
+    }
+}
@@ -0,0 +1,70 @@
+package com.boco.dragbubbleview;
+
+/**
+ * 固定内存的耗时直方图
+ * <p>
+ * 0~100ms 按 100µs 分桶，超出的记入最后一个桶，记录时不创建对象。
+ * 百分位取所在桶的上界，误差不超过一个桶宽。
+ */
+final class LatencyHistogram {
+
+    static final long BUCKET_NANOS = 100000L;
+    private static final int BUCKET_COUNT = 1000;
+
+    /**
+     * 最后一个桶记录超出范围的值
+     */
+    private final int[] mCounts = new int[BUCKET_COUNT + 1];
+    private long mCount;
+    private long mMaxNanos;
+
+    void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        int bucket = (int) Math.min(nanos / BUCKET_NANOS, BUCKET_COUNT);
+        mCounts[bucket]++;
+        mCount++;
+        if (nanos > mMaxNanos) {
+            mMaxNanos = nanos;
+        }
+    }
+
+    long getCount() {
+        return mCount;
+    }
+
+    long getMaxNanos() {
+        return mMaxNanos;
+    }
+
+    /**
+     * @param percentile 0~100
+     * @return 没有记录时返回 0
+     */
+    long getPercentileNanos(double percentile) {
+        if (mCount == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100 * mCount);
+        if (rank < 1) {
+            rank = 1;
+        }
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += mCounts[i];
+            if (seen >= rank) {
+                return Math.min((i + 1) * BUCKET_NANOS, mMaxNanos);
+            }
+        }
+        return mMaxNanos;
+    }
+
+    void reset() {
+        for (int i = 0; i < mCounts.length; i++) {
+            mCounts[i] = 0;
+        }
+        mCount = 0;
+        mMaxNanos = 0;
+    }
+}
@@ -0,0 +1,49 @@
+package com.boco.dragbubbleview;
+
+/**
+ * 按绘制时的图层类型分别累计 onDraw 耗时
+ * <p>
+ * 下标就是 View.LAYER_TYPE_NONE、LAYER_TYPE_SOFTWARE、LAYER_TYPE_HARDWARE 的取值。
+ * 硬件层下 onDraw 只是录制显示列表，这里的耗时不包括 GPU 光栅化和合成。
+ */
+final class LayerDrawStats {
+
+    static final int LAYER_TYPE_COUNT = 3;
+
+    private final long[] mTotalNanos = new long[LAYER_TYPE_COUNT];
+    private final long[] mMaxNanos = new long[LAYER_TYPE_COUNT];
+    private final int[] mCounts = new int[LAYER_TYPE_COUNT];
+
+    void record(int layerType, long drawNanos) {
+        mTotalNanos[layerType] += drawNanos;
+        mMaxNanos[layerType] = Math.max(mMaxNanos[layerType], drawNanos);
+        mCounts[layerType]++;
+    }
+
+    long getTotalNanos(int layerType) {
+        return mTotalNanos[layerType];
+    }
+
+    long getMaxNanos(int layerType) {
+        return mMaxNanos[layerType];
+    }
+
+    int getCount(int layerType) {
+        return mCounts[layerType];
+    }
+
+    /**
+     * 平均每次绘制的耗时，没有记录时为 0
+     */
+    long getAverageNanos(int layerType) {
+        return mCounts[layerType] == 0 ? 0 : mTotalNanos[layerType] / mCounts[layerType];
+    }
+
+    void reset() {
+        for (int i = 0; i < LAYER_TYPE_COUNT; i++) {
+            mTotalNanos[i] = 0;
+            mMaxNanos[i] = 0;
+            mCounts[i] = 0;
+        }
+    }
+}
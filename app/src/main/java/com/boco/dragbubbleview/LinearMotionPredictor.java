@@ -0,0 +1,103 @@
+package com.boco.dragbubbleview;
+
+/**
+ * 线性外推的拖拽位置预测
+ * <p>
+ * 对最近一段时间内的采样做最小二乘拟合得到速度，从最后一个采样沿速度方向外推，
+ * 外推时长不超过设定的上限，避免手指停下或转向时冲过头。
+ */
+public class LinearMotionPredictor implements BubbleMotionPredictor {
+
+    private static final int CAPACITY = 16;
+
+    private final long mWindowMillis;
+    private final long mMaxHorizonMillis;
+
+    /**
+     * 环形缓冲区保存最近的采样
+     */
+    private final long[] mTimes = new long[CAPACITY];
+    private final float[] mX = new float[CAPACITY];
+    private final float[] mY = new float[CAPACITY];
+    private int mHead;
+    private int mSize;
+
+    /**
+     * 默认用最近 40ms 的采样拟合速度，最多外推 16ms
+     */
+    public LinearMotionPredictor() {
+        this(40, 16);
+    }
+
+    /**
+     * @param windowMillis     参与拟合的采样时间窗口
+     * @param maxHorizonMillis 最多外推的时长
+     */
+    public LinearMotionPredictor(long windowMillis, long maxHorizonMillis) {
+        mWindowMillis = windowMillis;
+        mMaxHorizonMillis = maxHorizonMillis;
+    }
+
+    @Override
+    public void reset() {
+        mSize = 0;
+        mHead = 0;
+    }
+
+    @Override
+    public void addSample(long timeMillis, float x, float y) {
+        mTimes[mHead] = timeMillis;
+        mX[mHead] = x;
+        mY[mHead] = y;
+        mHead = (mHead + 1) % CAPACITY;
+        if (mSize < CAPACITY) {
+            mSize++;
+        }
+    }
+
+    @Override
+    public boolean predict(long timeMillis, float[] out) {
+        if (mSize == 0) {
+            return false;
+        }
+        int last = (mHead - 1 + CAPACITY) % CAPACITY;
+        long lastTime = mTimes[last];
+        out[0] = mX[last];
+        out[1] = mY[last];
+        long horizon = Math.min(timeMillis - lastTime, mMaxHorizonMillis);
+        if (horizon <= 0 || mSize < 2) {
+            return true;
+        }
+        //以最后一个采样为原点做最小二乘，求 x(t)、y(t) 的斜率
+        float sumT = 0;
+        float sumTT = 0;
+        float sumX = 0;
+        float sumTX = 0;
+        float sumY = 0;
+        float sumTY = 0;
+        int count = 0;
+        for (int i = 0; i < mSize; i++) {
+            int index = (last - i + CAPACITY) % CAPACITY;
+            float t = mTimes[index] - lastTime;
+            if (-t > mWindowMillis) {
+                break;
+            }
+            sumT += t;
+            sumTT += t * t;
+            sumX += mX[index];
+            sumTX += t * mX[index];
+            sumY += mY[index];
+            sumTY += t * mY[index];
+            count++;
+        }
+        float denominator = count * sumTT - sumT * sumT;
+        if (count < 2 || denominator == 0) {
+            return true;
+        }
+        float velocityX = (count * sumTX - sumT * sumX) / denominator;
+        float velocityY = (count * sumTY - sumT * sumY) / denominator;
+        out[0] += velocityX * horizon;
+        out[1] += velocityY * horizon;
+        return true;
+    }
+}
@@ -19,6 +19,10 @@ public class MainActivity extends AppCompatActivity {
         setContentView(R.layout.activity_main);
         Button reCreateBtn = (Button) findViewById(R.id.reCreateBtn);
         mDragBubbleView = (DragBubbleView) findViewById(R.id.dragBubble);
+        mDragBubbleView.setMetricsEnabled(true);
+        if (BuildConfig.DEBUG) {
+            DragBubbleView.setAllocationCountingEnabled(true);
+        }
         reCreateBtn.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
@@ -26,13 +30,13 @@ public class MainActivity extends AppCompatActivity {
                 Random random = new Random();
                 switch (random.nextInt(3)) {
                     case 0:
-                        mDragBubbleView.setText("9");
+                        mDragBubbleView.setCount(9);
                         break;
                     case 1:
-                        mDragBubbleView.setText("19");
+                        mDragBubbleView.setCount(19);
                         break;
                     case 2:
-                        mDragBubbleView.setText("99+");
+                        mDragBubbleView.setCount(100);
                         break;
                 }
 
@@ -51,12 +55,12 @@ public class MainActivity extends AppCompatActivity {
 
             @Override
             public void onRestore() {
-                Log.e("---> ", "气泡恢复原来位置");
+                Log.e("---> ", "气泡恢复原来位置 " + mDragBubbleView.getMetricsSnapshot());
             }
 
             @Override
             public void onDismiss() {
-                Log.e("---> ", "气泡消失");
+                Log.e("---> ", "气泡消失 " + mDragBubbleView.getMetricsSnapshot());
             }
         });
     }
@@ -0,0 +1,77 @@
+package com.boco.dragbubbleview;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+/**
+ * 用粒子画爆炸，不需要位图
+ * <p>
+ * 粒子从气泡所在位置向四周飞散并受重力下落，颜色取自气泡颜色，逐渐变小变淡。
+ * 粒子数量固定，数据在创建时一次分配，每帧只按进度重新计算，与帧率无关。
+ */
+public final class ParticleExplosionRenderer implements ExplosionRenderer {
+
+    public static final int DEFAULT_PARTICLE_COUNT = 48;
+
+    private final ParticleSystem mParticles;
+    private final Paint mPaint;
+    private int mColor;
+    private int mBurstCount;
+    private boolean mReducedQuality;
+
+    public ParticleExplosionRenderer() {
+        this(DEFAULT_PARTICLE_COUNT);
+    }
+
+    /**
+     * @param particleCount 每次爆炸的粒子数
+     */
+    public ParticleExplosionRenderer(int particleCount) {
+        mParticles = new ParticleSystem(particleCount);
+        mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mPaint.setStyle(Paint.Style.FILL);
+    }
+
+    @Override
+    public void start(float centerX, float centerY, float radius, int color) {
+        mColor = color;
+        //每次爆炸的形状不同，但给定次数时可以复现
+        int count = mReducedQuality ? mParticles.getCapacity() / 2 : mParticles.getCapacity();
+        mParticles.emit(centerX, centerY, radius, count, ++mBurstCount);
+    }
+
+    @Override
+    public void draw(Canvas canvas, float progress) {
+        mParticles.update(progress);
+        int alpha = Color.alpha(mColor);
+        mPaint.setColor(mColor);
+        for (int i = 0, count = mParticles.getCount(); i < count; i++) {
+            float particleAlpha = mParticles.getAlpha(i);
+            if (particleAlpha <= 0) {
+                continue;
+            }
+            mPaint.setAlpha((int) (alpha * particleAlpha));
+            canvas.drawCircle(mParticles.getX(i), mParticles.getY(i), mParticles.getSize(i),
+                    mPaint);
+        }
+    }
+
+    @Override
+    public void unionBounds(RectF out) {
+        out.union(mParticles.getLeft(), mParticles.getTop(), mParticles.getRight(),
+                mParticles.getBottom());
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    /**
+     * 打开后下一次爆炸只发射一半的粒子
+     */
+    public void setReducedQuality(boolean reduced) {
+        mReducedQuality = reduced;
+    }
+}
@@ -0,0 +1,170 @@
+package com.boco.dragbubbleview;
+
+/**
+ * 爆炸粒子的计算
+ * <p>
+ * 粒子数量有固定上限，数据都放在预先分配的基本类型数组里。
+ * 每个粒子的位置、大小和透明度都是爆炸进度的解析函数，与帧率无关，
+ * 同样的进度无论之前更新过多少次都得到同样的结果。不依赖 Android。
+ */
+final class ParticleSystem {
+
+    /**
+     * 初速度(以气泡半径计，每单位进度)
+     */
+    private static final float MIN_SPEED = 2f;
+    private static final float MAX_SPEED = 4f;
+    /**
+     * 重力加速度(以气泡半径计，每单位进度的平方)
+     */
+    private static final float GRAVITY = 2.5f;
+    /**
+     * 粒子寿命(以整个爆炸进度计)
+     */
+    private static final float MIN_LIFE = 0.6f;
+    private static final float MAX_LIFE = 1f;
+    /**
+     * 初始大小(以气泡半径计)
+     */
+    private static final float MIN_SIZE = 0.12f;
+    private static final float MAX_SIZE = 0.3f;
+
+    private final int mCapacity;
+    private final float[] mStartX;
+    private final float[] mStartY;
+    private final float[] mVelocityX;
+    private final float[] mVelocityY;
+    private final float[] mStartSize;
+    private final float[] mLife;
+    private final float[] mX;
+    private final float[] mY;
+    private final float[] mSize;
+    private final float[] mAlpha;
+    private int mCount;
+    private float mGravity;
+    private long mSeed;
+    /**
+     * 本次爆炸全程的外接矩形
+     */
+    private float mLeft;
+    private float mTop;
+    private float mRight;
+    private float mBottom;
+
+    ParticleSystem(int capacity) {
+        mCapacity = capacity;
+        mStartX = new float[capacity];
+        mStartY = new float[capacity];
+        mVelocityX = new float[capacity];
+        mVelocityY = new float[capacity];
+        mStartSize = new float[capacity];
+        mLife = new float[capacity];
+        mX = new float[capacity];
+        mY = new float[capacity];
+        mSize = new float[capacity];
+        mAlpha = new float[capacity];
+    }
+
+    /**
+     * 在气泡范围内发射粒子，替换上一次的粒子
+     *
+     * @param count 粒子个数，超过上限时取上限
+     * @param seed  随机种子，相同的种子得到相同的爆炸
+     */
+    void emit(float centerX, float centerY, float radius, int count, long seed) {
+        mCount = Math.min(count, mCapacity);
+        mGravity = GRAVITY * radius;
+        mSeed = seed == 0 ? 1 : seed;
+        float reach = 0;
+        for (int i = 0; i < mCount; i++) {
+            double angle = nextFloat() * 2 * Math.PI;
+            float cos = (float) Math.cos(angle);
+            float sin = (float) Math.sin(angle);
+            float offset = nextFloat() * radius;
+            float speed = (MIN_SPEED + nextFloat() * (MAX_SPEED - MIN_SPEED)) * radius;
+            mStartX[i] = centerX + cos * offset;
+            mStartY[i] = centerY + sin * offset;
+            mVelocityX[i] = cos * speed;
+            mVelocityY[i] = sin * speed;
+            mStartSize[i] = (MIN_SIZE + nextFloat() * (MAX_SIZE - MIN_SIZE)) * radius;
+            mLife[i] = MIN_LIFE + nextFloat() * (MAX_LIFE - MIN_LIFE);
+            reach = Math.max(reach, offset + speed * mLife[i] + mStartSize[i]);
+        }
+        float fall = mGravity / 2;
+        mLeft = centerX - reach;
+        mTop = centerY - reach;
+        mRight = centerX + reach;
+        mBottom = centerY + reach + fall;
+        update(0);
+    }
+
+    /**
+     * 计算进度为 progress 时各粒子的位置、大小和透明度
+     */
+    void update(float progress) {
+        float halfGravity = mGravity / 2;
+        for (int i = 0; i < mCount; i++) {
+            float t = Math.min(progress, mLife[i]);
+            float age = t / mLife[i];
+            mX[i] = mStartX[i] + mVelocityX[i] * t;
+            mY[i] = mStartY[i] + mVelocityY[i] * t + halfGravity * t * t;
+            mSize[i] = mStartSize[i] * (1 - age / 2);
+            mAlpha[i] = 1 - age;
+        }
+    }
+
+    /**
+     * xorshift，返回 [0, 1)
+     */
+    private float nextFloat() {
+        long x = mSeed;
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        mSeed = x;
+        return (x >>> 40) / (float) (1 << 24);
+    }
+
+    int getCapacity() {
+        return mCapacity;
+    }
+
+    int getCount() {
+        return mCount;
+    }
+
+    float getX(int index) {
+        return mX[index];
+    }
+
+    float getY(int index) {
+        return mY[index];
+    }
+
+    float getSize(int index) {
+        return mSize[index];
+    }
+
+    /**
+     * 透明度 [0, 1]，寿命结束后为 0
+     */
+    float getAlpha(int index) {
+        return mAlpha[index];
+    }
+
+    float getLeft() {
+        return mLeft;
+    }
+
+    float getTop() {
+        return mTop;
+    }
+
+    float getRight() {
+        return mRight;
+    }
+
+    float getBottom() {
+        return mBottom;
+    }
+}
@@ -0,0 +1,47 @@
+package com.boco.dragbubbleview;
+
+/**
+ * 气泡复原动画的位移计算
+ * <p>
+ * 起点、终点和当前位置都保存在基本类型字段中，每帧只做浮点运算，不创建对象。
+ */
+final class RestoreMotion {
+
+    private float mStartX;
+    private float mStartY;
+    private float mEndX;
+    private float mEndY;
+    /**
+     * 当前气泡圆心坐标
+     */
+    private float mX;
+    private float mY;
+
+    /**
+     * 开始一次复原，从松手位置回到黏质小球圆心
+     */
+    void start(float fromX, float fromY, float toX, float toY) {
+        mStartX = fromX;
+        mStartY = fromY;
+        mEndX = toX;
+        mEndY = toY;
+        mX = fromX;
+        mY = fromY;
+    }
+
+    /**
+     * @param fraction 经过插值器处理后的进度
+     */
+    void update(float fraction) {
+        mX = mStartX + (mEndX - mStartX) * fraction;
+        mY = mStartY + (mEndY - mStartY) * fraction;
+    }
+
+    float getX() {
+        return mX;
+    }
+
+    float getY() {
+        return mY;
+    }
+}
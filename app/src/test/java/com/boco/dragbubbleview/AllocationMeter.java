@@ -0,0 +1,55 @@
+package com.boco.dragbubbleview;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * 测量一段计算在当前线程上分配的字节数
+ * <p>
+ * 先预热让 JIT 完成编译，再扣除读取计数本身的开销。计算的返回值累加到 sink 中，
+ * 避免被当成无用代码消除。依赖 HotSpot 的 com.sun.management.ThreadMXBean。
+ */
+final class AllocationMeter {
+
+    interface Workload {
+        /**
+         * 执行一次计算
+         *
+         * @param iteration 第几次，用来改变输入
+         * @return 计算结果，累加后防止被优化掉
+         */
+        float run(int iteration);
+    }
+
+    private static volatile float sSink;
+
+    private AllocationMeter() {
+    }
+
+    /**
+     * @param warmUps 预热次数
+     * @param runs    测量次数
+     * @return 测量期间分配的字节数
+     */
+    static long bytesAllocatedBy(Workload workload, int warmUps, int runs) {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        float sink = 0;
+        //预热，让 JIT 完成编译
+        for (int i = 0; i < warmUps; i++) {
+            sink += workload.run(i);
+        }
+        //测量本身的开销
+        long calibrateStart = threadBean.getThreadAllocatedBytes(threadId);
+        long calibrateEnd = threadBean.getThreadAllocatedBytes(threadId);
+        long overhead = calibrateEnd - calibrateStart;
+
+        long start = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < runs; i++) {
+            sink += workload.run(i);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - start - overhead;
+        sSink = sink;
+        return allocated;
+    }
+}
@@ -0,0 +1,108 @@
+package com.boco.dragbubbleview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 共享帧时钟动画表的单元测试
+ */
+public class BubbleAnimationSlotsTest {
+
+    /**
+     * 推进指定次数后结束，记录收到的时间间隔和重绘次数
+     */
+    private static class CountingClient extends BubbleAnimationSlots.Client {
+        int mRemainingTicks;
+        long mTotalDelta;
+        int mInvalidateCount;
+        boolean mFinished;
+        BubbleAnimationSlots mRemoveOnTick;
+        BubbleAnimationSlots.Client mToRemove;
+
+        CountingClient(int ticks) {
+            mRemainingTicks = ticks;
+        }
+
+        @Override
+        boolean onTick(long deltaMillis) {
+            mTotalDelta += deltaMillis;
+            if (mRemoveOnTick != null) {
+                mRemoveOnTick.remove(mToRemove);
+            }
+            return --mRemainingTicks > 0;
+        }
+
+        @Override
+        void onInvalidate(boolean finished) {
+            mInvalidateCount++;
+            mFinished = finished;
+        }
+    }
+
+    @Test
+    public void tick_advancesEachClientFromItsOwnStartTime() throws Exception {
+        BubbleAnimationSlots slots = new BubbleAnimationSlots();
+        CountingClient first = new CountingClient(10);
+        CountingClient second = new CountingClient(10);
+        slots.add(first, 0);
+        slots.add(second, 8);
+        slots.tick(16);
+        slots.tick(32);
+        assertEquals(32, first.mTotalDelta);
+        assertEquals(24, second.mTotalDelta);
+        assertEquals(2, first.mInvalidateCount);
+        assertEquals(2, slots.getActiveCount());
+        assertEquals(2, slots.getTickCount());
+    }
+
+    @Test
+    public void tick_removesFinishedClients() throws Exception {
+        BubbleAnimationSlots slots = new BubbleAnimationSlots();
+        CountingClient shortOne = new CountingClient(1);
+        CountingClient longOne = new CountingClient(3);
+        slots.add(shortOne, 0);
+        slots.add(longOne, 0);
+        assertEquals(1, slots.tick(16));
+        assertTrue(shortOne.mFinished);
+        assertFalse(shortOne.isScheduled());
+        assertTrue(longOne.isScheduled());
+        slots.tick(32);
+        assertEquals(0, slots.tick(48));
+        assertTrue(longOne.mFinished);
+        assertEquals(1, shortOne.mInvalidateCount);
+    }
+
+    @Test
+    public void remove_duringTickSkipsRemovedClient() throws Exception {
+        BubbleAnimationSlots slots = new BubbleAnimationSlots();
+        CountingClient remover = new CountingClient(5);
+        CountingClient removed = new CountingClient(5);
+        remover.mRemoveOnTick = slots;
+        remover.mToRemove = removed;
+        slots.add(remover, 0);
+        slots.add(removed, 0);
+        assertEquals(1, slots.tick(16));
+        assertEquals(0, removed.mTotalDelta);
+        assertEquals(0, removed.mInvalidateCount);
+        assertFalse(removed.isScheduled());
+    }
+
+    @Test
+    public void add_growsAndRestartsExistingClient() throws Exception {
+        BubbleAnimationSlots slots = new BubbleAnimationSlots();
+        CountingClient[] clients = new CountingClient[20];
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = new CountingClient(2);
+            slots.add(clients[i], 0);
+        }
+        slots.add(clients[0], 10);
+        assertEquals(20, slots.getActiveCount());
+        slots.tick(16);
+        assertEquals(6, clients[0].mTotalDelta);
+        assertEquals(16, clients[19].mTotalDelta);
+        assertEquals(0, slots.tick(32));
+    }
+}
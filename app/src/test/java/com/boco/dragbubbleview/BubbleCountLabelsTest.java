@@ -0,0 +1,41 @@
+package com.boco.dragbubbleview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 未读数文本表的单元测试
+ */
+public class BubbleCountLabelsTest {
+
+    @Test
+    public void get_returnsSameInstanceForSameCount() throws Exception {
+        String label = BubbleCountLabels.get(42, 99);
+        assertEquals("42", label);
+        assertSame(label, BubbleCountLabels.get(42, 99));
+        assertSame(label, BubbleCountLabels.get(42, 500));
+    }
+
+    @Test
+    public void get_overflowUsesCap() throws Exception {
+        assertEquals("99+", BubbleCountLabels.get(100, 99));
+        assertSame(BubbleCountLabels.get(100, 99), BubbleCountLabels.get(12345, 99));
+        assertEquals("999+", BubbleCountLabels.get(1000, 999));
+        assertEquals("999", BubbleCountLabels.get(999, 999));
+    }
+
+    @Test
+    public void get_nonPositiveHidesBubble() throws Exception {
+        assertNull(BubbleCountLabels.get(0, 99));
+        assertNull(BubbleCountLabels.get(-3, 99));
+    }
+
+    @Test
+    public void get_countsBeyondTableAreStillFormatted() throws Exception {
+        assertEquals("20000", BubbleCountLabels.get(20000, 50000));
+        assertEquals("50000+", BubbleCountLabels.get(50001, 50000));
+    }
+}
@@ -0,0 +1,234 @@
+package com.boco.dragbubbleview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 一键清除的单元测试，用手动推进的帧时钟和假气泡代替 View
+ */
+public class BubbleDismissCascadeTest {
+
+    /**
+     * 消失后一直处于动画中，直到测试调用 {@link #finish()}
+     */
+    private static class FakeBubble implements BubbleDismissCascade.Target {
+        boolean mShown = true;
+        boolean mDismissed;
+        boolean mAnimating;
+        boolean mFade;
+
+        @Override
+        public boolean isShown() {
+            return mShown;
+        }
+
+        @Override
+        public boolean dismissQuietly(boolean fade) {
+            if (mDismissed) {
+                return false;
+            }
+            mDismissed = true;
+            mAnimating = true;
+            mFade = fade;
+            return true;
+        }
+
+        @Override
+        public boolean isDismissAnimating() {
+            return mAnimating;
+        }
+
+        void finish() {
+            mAnimating = false;
+        }
+    }
+
+    /**
+     * 用真实的动画表推进，时间由测试给出
+     */
+    private static class ManualTicker implements BubbleDismissCascade.Ticker {
+        final BubbleAnimationSlots mSlots = new BubbleAnimationSlots();
+        long mNow;
+
+        @Override
+        public void schedule(BubbleAnimationSlots.Client client) {
+            mSlots.add(client, mNow);
+        }
+
+        @Override
+        public void cancel(BubbleAnimationSlots.Client client) {
+            mSlots.remove(client);
+        }
+
+        void advance(long deltaMillis) {
+            mNow += deltaMillis;
+            mSlots.tick(mNow);
+        }
+    }
+
+    private static class RecordingListener
+            implements BubbleDismissCascade.OnDismissAllListener<FakeBubble> {
+        int mCallCount;
+        List<FakeBubble> mDismissed;
+
+        @Override
+        public void onDismissAll(List<FakeBubble> dismissed) {
+            mCallCount++;
+            mDismissed = dismissed;
+        }
+    }
+
+    private ManualTicker mTicker;
+    private BubbleDismissCascade<FakeBubble> mCascade;
+    private RecordingListener mListener;
+
+    @Before
+    public void setUp() throws Exception {
+        mTicker = new ManualTicker();
+        mCascade = new BubbleDismissCascade<>(mTicker);
+        mListener = new RecordingListener();
+    }
+
+    @Test
+    public void bubblesStartOneStaggerApart() throws Exception {
+        List<FakeBubble> bubbles = newBubbles(4);
+        mCascade.setStaggerMillis(24);
+        mCascade.start(bubbles, mListener);
+        //第一个立即开始
+        assertDismissed(bubbles, 1);
+        mTicker.advance(16);
+        assertDismissed(bubbles, 1);
+        mTicker.advance(8);
+        assertDismissed(bubbles, 2);
+        mTicker.advance(24);
+        assertDismissed(bubbles, 3);
+        //一帧跨过多个间隔时同一帧内补上
+        mTicker.advance(100);
+        assertDismissed(bubbles, 4);
+        assertEquals(0, mCascade.getFadeCount());
+    }
+
+    @Test
+    public void effectsBeyondBudgetOnlyFade() throws Exception {
+        List<FakeBubble> bubbles = newBubbles(6);
+        mCascade.setStaggerMillis(0);
+        mCascade.setMaxConcurrentEffects(2);
+        mCascade.start(bubbles, mListener);
+        assertDismissed(bubbles, 6);
+        assertFalse(bubbles.get(0).mFade);
+        assertFalse(bubbles.get(1).mFade);
+        for (int i = 2; i < 6; i++) {
+            assertTrue(bubbles.get(i).mFade);
+        }
+        assertEquals(4, mCascade.getFadeCount());
+    }
+
+    @Test
+    public void finishedEffectsFreeTheirBudget() throws Exception {
+        List<FakeBubble> bubbles = newBubbles(4);
+        mCascade.setStaggerMillis(10);
+        mCascade.setMaxConcurrentEffects(2);
+        mCascade.start(bubbles, mListener);
+        mTicker.advance(10);
+        bubbles.get(0).finish();
+        mTicker.advance(10);
+        assertFalse(bubbles.get(2).mFade);
+        mTicker.advance(10);
+        assertTrue(bubbles.get(3).mFade);
+        assertEquals(1, mCascade.getFadeCount());
+    }
+
+    @Test
+    public void listenerFiresOnceAfterAllAnimationsEnd() throws Exception {
+        List<FakeBubble> bubbles = newBubbles(3);
+        FakeBubble hidden = new FakeBubble();
+        hidden.mShown = false;
+        FakeBubble alreadyDismissed = new FakeBubble();
+        alreadyDismissed.dismissQuietly(false);
+        alreadyDismissed.finish();
+        List<FakeBubble> all = new ArrayList<>(bubbles);
+        all.add(hidden);
+        all.add(alreadyDismissed);
+
+        mCascade.setStaggerMillis(16);
+        mCascade.start(all, mListener);
+        for (int i = 0; i < 5; i++) {
+            mTicker.advance(16);
+        }
+        assertTrue(mCascade.isRunning());
+        assertEquals(0, mListener.mCallCount);
+
+        bubbles.get(0).finish();
+        bubbles.get(1).finish();
+        mTicker.advance(16);
+        assertEquals(0, mListener.mCallCount);
+        bubbles.get(2).finish();
+        mTicker.advance(16);
+        assertEquals(1, mListener.mCallCount);
+        assertEquals(bubbles, mListener.mDismissed);
+        assertFalse(hidden.mDismissed);
+        assertFalse(mCascade.isRunning());
+
+        mTicker.advance(16);
+        assertEquals(1, mListener.mCallCount);
+        assertEquals(0, mTicker.mSlots.getActiveCount());
+    }
+
+    @Test
+    public void cancelStopsPendingBubblesWithoutCallback() throws Exception {
+        List<FakeBubble> bubbles = newBubbles(3);
+        mCascade.setStaggerMillis(24);
+        mCascade.start(bubbles, mListener);
+        mCascade.cancel();
+        assertFalse(mCascade.isRunning());
+        mTicker.advance(100);
+        assertDismissed(bubbles, 1);
+        bubbles.get(0).finish();
+        mTicker.advance(16);
+        assertEquals(0, mListener.mCallCount);
+        assertNull(mListener.mDismissed);
+    }
+
+    @Test
+    public void restartCancelsPreviousRun() throws Exception {
+        List<FakeBubble> first = newBubbles(2);
+        List<FakeBubble> second = newBubbles(1);
+        RecordingListener firstListener = new RecordingListener();
+        mCascade.setStaggerMillis(24);
+        mCascade.start(first, firstListener);
+        mCascade.start(second, mListener);
+        second.get(0).finish();
+        mTicker.advance(48);
+        assertFalse(first.get(1).mDismissed);
+        assertEquals(0, firstListener.mCallCount);
+        assertEquals(1, mListener.mCallCount);
+        assertSame(second.get(0), mListener.mDismissed.get(0));
+    }
+
+    private static List<FakeBubble> newBubbles(int count) {
+        FakeBubble[] bubbles = new FakeBubble[count];
+        for (int i = 0; i < count; i++) {
+            bubbles[i] = new FakeBubble();
+        }
+        return Arrays.asList(bubbles);
+    }
+
+    /**
+     * 前 count 个气泡已经开始消失，其余还没有
+     */
+    private static void assertDismissed(List<FakeBubble> bubbles, int count) {
+        for (int i = 0; i < bubbles.size(); i++) {
+            assertEquals("bubble " + i, i < count, bubbles.get(i).mDismissed);
+        }
+    }
+}
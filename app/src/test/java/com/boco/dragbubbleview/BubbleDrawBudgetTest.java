@@ -0,0 +1,167 @@
+package com.boco.dragbubbleview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 各状态下每帧绘制调用的上限
+ * <p>
+ * 在 JVM 上按脚本跑完按下、拖拽、移动、复原和消失，每帧用 {@link RecordingBubbleCanvas}
+ * 记录 {@link BubbleRenderer} 发出的绘制。只覆盖绘制逻辑本身：DragBubbleView 在 onDraw 中
+ * 直接画到 Canvas 上的静止位图缓存和调试用的重绘区域边框、面积文本不经过这里，不受上限约束。
+ * 多出一次绘制调用或路径变复杂时测试失败，需要同时调整这里的上限并说明原因。
+ */
+public class BubbleDrawBudgetTest {
+
+    private static final float RADIUS = 24f;
+    private static final int COLOR = 0xffff0000;
+
+    /**
+     * 下标是 BubbleDragRules.STATE_*
+     */
+    private static final DrawBudget[] PATH_BUDGETS = new DrawBudget[4];
+    private static final DrawBudget[] MESH_BUDGETS = new DrawBudget[4];
+    private static final String[] STATE_NAMES = new String[4];
+
+    static {
+        STATE_NAMES[BubbleDragRules.STATE_DEFAULT] = "STATE_DEFAULT";
+        STATE_NAMES[BubbleDragRules.STATE_DRAG] = "STATE_DRAG";
+        STATE_NAMES[BubbleDragRules.STATE_MOVE] = "STATE_MOVE";
+        STATE_NAMES[BubbleDragRules.STATE_DISMISS] = "STATE_DISMISS";
+        //气泡 + 文本
+        PATH_BUDGETS[BubbleDragRules.STATE_DEFAULT] = new DrawBudget(2, 0, 0, 0);
+        //气泡 + 黏质小球 + 一条两段曲线两段直线的路径 + 文本
+        PATH_BUDGETS[BubbleDragRules.STATE_DRAG] = new DrawBudget(4, 1, 3, 0);
+        PATH_BUDGETS[BubbleDragRules.STATE_MOVE] = new DrawBudget(2, 0, 0, 0);
+        //只剩爆炸效果
+        PATH_BUDGETS[BubbleDragRules.STATE_DISMISS] = new DrawBudget(1, 0, 0, 0);
+
+        MESH_BUDGETS[BubbleDragRules.STATE_DEFAULT] = PATH_BUDGETS[BubbleDragRules.STATE_DEFAULT];
+        //气泡 + 黏质小球和曲线合成的一次 drawMesh + 文本，半径 24 时本脚本实测最多 96 个顶点，不留余量
+        MESH_BUDGETS[BubbleDragRules.STATE_DRAG] = new DrawBudget(3, 0, 0, 96);
+        MESH_BUDGETS[BubbleDragRules.STATE_MOVE] = PATH_BUDGETS[BubbleDragRules.STATE_MOVE];
+        MESH_BUDGETS[BubbleDragRules.STATE_DISMISS] = PATH_BUDGETS[BubbleDragRules.STATE_DISMISS];
+    }
+
+    @Test
+    public void circleBubble_staysWithinBudgets() throws Exception {
+        runScripts(newRenderer("9", false), new RecordingBubbleCanvas(false), PATH_BUDGETS);
+    }
+
+    @Test
+    public void roundRectBubble_staysWithinBudgets() throws Exception {
+        runScripts(newRenderer("99+", false), new RecordingBubbleCanvas(false), PATH_BUDGETS);
+    }
+
+    @Test
+    public void meshNeck_staysWithinBudgets() throws Exception {
+        runScripts(newRenderer("9", true), new RecordingBubbleCanvas(true), MESH_BUDGETS);
+    }
+
+    @Test
+    public void meshOnUnsupportedCanvas_fallsBackToPathBudgets() throws Exception {
+        runScripts(newRenderer("9", true), new RecordingBubbleCanvas(false), PATH_BUDGETS);
+    }
+
+    @Test
+    public void lowQualityLevels_stayWithinBudgets() throws Exception {
+        BubbleRenderer renderer = newRenderer("9", false);
+        renderer.setSimplifiedNeck(true);
+        renderer.setExplosionEnabled(false);
+        DrawBudget[] budgets = PATH_BUDGETS.clone();
+        //不画爆炸效果时消失过程中什么都不画
+        budgets[BubbleDragRules.STATE_DISMISS] = new DrawBudget(0, 0, 0, 0);
+        runScripts(renderer, new RecordingBubbleCanvas(false), budgets);
+    }
+
+    @Test(expected = AssertionError.class)
+    public void extraDrawCall_exceedsBudget() throws Exception {
+        BubbleRenderer renderer = newRenderer("9", false);
+        BubbleSimulation simulation = newSimulation();
+        RecordingBubbleCanvas canvas = new RecordingBubbleCanvas(false);
+        renderer.draw(canvas, simulation);
+        //同一帧画两次，模拟多出的绘制
+        renderer.draw(canvas, simulation);
+        PATH_BUDGETS[BubbleDragRules.STATE_DEFAULT].check("double draw", canvas);
+    }
+
+    @Test
+    public void hiddenBubble_drawsNothing() throws Exception {
+        BubbleRenderer renderer = new BubbleRenderer();
+        renderer.setLabel(null, BubbleDragRules.SHAPE_CIRCLE, 0, 0);
+        RecordingBubbleCanvas canvas = new RecordingBubbleCanvas(false);
+        renderer.draw(canvas, newSimulation());
+        new DrawBudget(0, 0, 0, 0).check("hidden", canvas);
+    }
+
+    private static BubbleRenderer newRenderer(String text, boolean mesh) {
+        BubbleRenderer renderer = new BubbleRenderer();
+        renderer.setBubbleColor(COLOR);
+        renderer.setLabel(text, BubbleDragRules.shapeOf(text.length()), -6f, 6f);
+        renderer.setMeshEnabled(mesh);
+        return renderer;
+    }
+
+    private static BubbleSimulation newSimulation() {
+        BubbleSimulation simulation = new BubbleSimulation(RADIUS);
+        simulation.reset(100f, 100f);
+        return simulation;
+    }
+
+    /**
+     * 依次跑静止、黏连范围内拖拽后复原、拖出后放回复原、拖出后消失四段脚本
+     */
+    private static void runScripts(BubbleRenderer renderer, RecordingBubbleCanvas canvas,
+                                   DrawBudget[] budgets) {
+        BubbleSimulation simulation = newSimulation();
+        float maxDistance = simulation.getMaxDistance();
+        int frames = frame("rest", 0, renderer, canvas, simulation, budgets);
+
+        simulation.down(100f, 100f);
+        for (int i = 1; i <= 20; i++) {
+            simulation.move(100f + maxDistance * 0.9f * i / 20, 100f + i);
+            frames += frame("sticky drag", i, renderer, canvas, simulation, budgets);
+        }
+        simulation.up();
+        frames += animate("sticky restore", renderer, canvas, simulation, budgets);
+
+        simulation.down(100f, 100f);
+        for (int i = 1; i <= 20; i++) {
+            simulation.move(100f + maxDistance * 1.5f * i / 20, 100f);
+            frames += frame("move out", i, renderer, canvas, simulation, budgets);
+        }
+        simulation.move(100f + RADIUS, 100f);
+        simulation.up();
+        frames += animate("move restore", renderer, canvas, simulation, budgets);
+
+        simulation.down(100f, 100f);
+        simulation.move(100f + maxDistance * 3, 100f);
+        frames += frame("fling", 0, renderer, canvas, simulation, budgets);
+        simulation.up();
+        frames += animate("dismiss", renderer, canvas, simulation, budgets);
+        assertTrue(frames > 60);
+    }
+
+    private static int animate(String script, BubbleRenderer renderer,
+                               RecordingBubbleCanvas canvas, BubbleSimulation simulation,
+                               DrawBudget[] budgets) {
+        int frames = 0;
+        while (simulation.isAnimating()) {
+            simulation.step(16f);
+            frames += frame(script, frames, renderer, canvas, simulation, budgets);
+        }
+        return frames;
+    }
+
+    private static int frame(String script, int index, BubbleRenderer renderer,
+                             RecordingBubbleCanvas canvas, BubbleSimulation simulation,
+                             DrawBudget[] budgets) {
+        canvas.reset();
+        renderer.draw(canvas, simulation);
+        int state = simulation.getState();
+        budgets[state].check(script + " frame " + index + " (" + STATE_NAMES[state] + ")",
+                canvas);
+        return 1;
+    }
+}
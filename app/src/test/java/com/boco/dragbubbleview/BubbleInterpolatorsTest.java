@@ -0,0 +1,40 @@
+package com.boco.dragbubbleview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 弹簧曲线查找表的单元测试
+ */
+public class BubbleInterpolatorsTest {
+
+    @Test
+    public void restoreWobble_matchesClosedFormWithinErrorBound() throws Exception {
+        BubbleInterpolators.SpringTable table = BubbleInterpolators.restoreWobble();
+        float maxError = 0;
+        for (int i = 0; i <= 10000; i++) {
+            float input = i / 10000f;
+            float expected = BubbleInterpolators.dampedSpring(input,
+                    BubbleInterpolators.RESTORE_DECAY, BubbleInterpolators.RESTORE_PERIOD);
+            maxError = Math.max(maxError, Math.abs(table.getInterpolation(input) - expected));
+        }
+        assertTrue("max error " + maxError, maxError < 1e-3f);
+    }
+
+    @Test
+    public void spring_sharesTablesWithSameParameters() throws Exception {
+        assertSame(BubbleInterpolators.restoreWobble(), BubbleInterpolators.spring(
+                BubbleInterpolators.RESTORE_DECAY, BubbleInterpolators.RESTORE_PERIOD,
+                BubbleInterpolators.DEFAULT_SAMPLES));
+    }
+
+    @Test
+    public void getInterpolation_clampsToEndpoints() throws Exception {
+        BubbleInterpolators.SpringTable table = BubbleInterpolators.spring(4f, 0.5f, 16);
+        assertEquals(table.getInterpolation(0f), table.getInterpolation(-1f), 0f);
+        assertEquals(table.getInterpolation(1f), table.getInterpolation(2f), 0f);
+    }
+}
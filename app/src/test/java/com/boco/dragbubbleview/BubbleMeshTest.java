@@ -0,0 +1,66 @@
+package com.boco.dragbubbleview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 黏质小球和贝塞尔曲线三角形展开的单元测试
+ */
+public class BubbleMeshTest {
+
+    @Test
+    public void segments_growWithRadiusAndCurvature() throws Exception {
+        int small = BubbleMesh.circleSegments(8f, BubbleMesh.DEFAULT_TOLERANCE);
+        int large = BubbleMesh.circleSegments(64f, BubbleMesh.DEFAULT_TOLERANCE);
+        assertTrue(small + " < " + large, small < large);
+
+        BezierNeck near = new BezierNeck();
+        near.calculate(0f, 0f, 20f, 30f, 0f, 24f, 30f);
+        BezierNeck far = new BezierNeck();
+        far.calculate(0f, 0f, 10f, 140f, 0f, 24f, 140f);
+        assertTrue(BubbleMesh.curveSegments(near, 0.25f)
+                <= BubbleMesh.curveSegments(far, 0.25f));
+    }
+
+    @Test
+    public void circleSegments_stayWithinTolerance() throws Exception {
+        for (float radius = 4f; radius <= 200f; radius += 4f) {
+            int segments = BubbleMesh.circleSegments(radius, BubbleMesh.DEFAULT_TOLERANCE);
+            double error = radius * (1 - Math.cos(Math.PI / segments));
+            assertTrue("radius=" + radius, segments == 96
+                    || error <= BubbleMesh.DEFAULT_TOLERANCE + 1e-6);
+        }
+    }
+
+    @Test
+    public void build_coversCircleAreaAndReusesBuffer() throws Exception {
+        BubbleMesh mesh = new BubbleMesh();
+        BezierNeck neck = new BezierNeck();
+        neck.calculate(100f, 100f, 20f, 160f, 100f, 24f, 60f);
+        mesh.build(100f, 100f, 20f, neck);
+        float[] vertices = mesh.getVertices();
+        int circleVertices = 3 * mesh.getCircleSegments();
+        assertEquals(circleVertices + 6 * mesh.getCurveSegments(), mesh.getVertexCount());
+        double area = 0;
+        for (int i = 0; i < circleVertices; i += 3) {
+            area += triangleArea(vertices, i);
+        }
+        //内接多边形少掉的面积不超过 周长 × 误差
+        assertTrue(area <= Math.PI * 20 * 20);
+        assertEquals(Math.PI * 20 * 20, area, 2 * Math.PI * 20 * BubbleMesh.DEFAULT_TOLERANCE);
+
+        //同样规模的曲线复用同一个缓冲区
+        neck.calculate(100f, 100f, 19f, 165f, 100f, 24f, 65f);
+        mesh.build(100f, 100f, 19f, neck);
+        assertSame(vertices, mesh.getVertices());
+    }
+
+    private static double triangleArea(float[] v, int vertex) {
+        int o = vertex * 2;
+        return Math.abs((v[o + 2] - v[o]) * (v[o + 5] - v[o + 1])
+                - (v[o + 4] - v[o]) * (v[o + 3] - v[o + 1])) / 2;
+    }
+}
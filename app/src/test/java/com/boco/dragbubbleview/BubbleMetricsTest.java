@@ -0,0 +1,80 @@
+package com.boco.dragbubbleview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 帧耗时和卡顿统计的单元测试
+ */
+public class BubbleMetricsTest {
+
+    @Test
+    public void histogram_percentilesWithinOneBucket() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        //1ms ~ 100ms 各一次
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000000L);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(50e6, histogram.getPercentileNanos(50), LatencyHistogram.BUCKET_NANOS);
+        assertEquals(95e6, histogram.getPercentileNanos(95), LatencyHistogram.BUCKET_NANOS);
+        assertEquals(99e6, histogram.getPercentileNanos(99), LatencyHistogram.BUCKET_NANOS);
+        assertEquals(100000000L, histogram.getMaxNanos());
+    }
+
+    @Test
+    public void histogram_overflowReportsMax() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(500000000L);
+        assertEquals(500000000L, histogram.getPercentileNanos(50));
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentileNanos(99));
+    }
+
+    @Test
+    public void touchLatency_measuredUntilNextDraw() throws Exception {
+        BubbleMetrics metrics = new BubbleMetrics();
+        metrics.onTouchEvent(1000);
+        metrics.onTouchEvent(1008);
+        metrics.onDraw(1016, 2000000L);
+        //没有新的触摸事件时只记录绘制耗时
+        metrics.onDraw(1032, 3000000L);
+        BubbleMetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(2, snapshot.getTouchCount());
+        assertEquals(16f, snapshot.getTouchLatencyP99(), 0.15f);
+        assertEquals(8f, snapshot.getTouchLatencyP50(), 0.15f);
+        assertEquals(2, snapshot.getDrawCount());
+        assertEquals(3f, snapshot.getDrawTimeMax(), 0.15f);
+    }
+
+    @Test
+    public void animationFrames_countDroppedFrames() throws Exception {
+        BubbleMetrics metrics = new BubbleMetrics();
+        metrics.setRefreshRate(60);
+        metrics.onAnimationFrame(0);
+        metrics.onAnimationFrame(17);
+        metrics.onAnimationFrame(50);
+        metrics.onAnimationFrame(16);
+        BubbleMetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(4, snapshot.getAnimationFrameCount());
+        assertEquals(2, snapshot.getDroppedFrameCount());
+    }
+
+    @Test
+    public void gestureAllocations_trackedPerGesture() throws Exception {
+        BubbleMetrics metrics = new BubbleMetrics();
+        metrics.onGestureStart(100);
+        metrics.onGestureEnd(130);
+        metrics.onGestureStart(200);
+        metrics.onGestureEnd(210);
+        //没有开始的结束不计
+        metrics.onGestureEnd(500);
+        BubbleMetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(2, snapshot.getGestureCount());
+        assertEquals(10, snapshot.getLastGestureAllocations());
+        assertEquals(30, snapshot.getMaxGestureAllocations());
+        assertEquals(40, snapshot.getTotalGestureAllocations());
+    }
+}
@@ -0,0 +1,119 @@
+package com.boco.dragbubbleview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 绘制质量调节的单元测试
+ */
+public class BubbleQualityGovernorTest {
+
+    /**
+     * 60Hz 下慢帧阈值约 8.3ms，快帧阈值约 4.2ms
+     */
+    private static final long SLOW = 10000000L;
+    private static final long MEDIUM = 6000000L;
+    private static final long FAST = 1000000L;
+
+    @Test
+    public void slowFrames_stepDownOneLevelPerWindow() throws Exception {
+        BubbleQualityGovernor governor = new BubbleQualityGovernor(60f, 10, 2);
+        feed(governor, SLOW, 9);
+        assertTrue(governor.onFrame(SLOW));
+        assertEquals(BubbleQualityGovernor.LEVEL_NO_ANTI_ALIAS, governor.getLevel());
+        feed(governor, SLOW, 10);
+        assertEquals(BubbleQualityGovernor.LEVEL_SIMPLE_NECK, governor.getLevel());
+        feed(governor, SLOW, 100);
+        assertEquals(BubbleQualityGovernor.LEVEL_NO_EXPLOSION, governor.getLevel());
+        assertEquals(4, governor.getTransitionCount());
+    }
+
+    @Test
+    public void occasionalSlowFrame_keepsLevel() throws Exception {
+        BubbleQualityGovernor governor = new BubbleQualityGovernor(60f, 10, 2);
+        for (int i = 0; i < 5; i++) {
+            feed(governor, FAST, 8);
+            feed(governor, SLOW, 2);
+        }
+        assertEquals(BubbleQualityGovernor.LEVEL_FULL, governor.getLevel());
+        assertEquals(0, governor.getTransitionCount());
+    }
+
+    @Test
+    public void headroom_stepsBackUpAfterRecoveryWindows() throws Exception {
+        BubbleQualityGovernor governor = new BubbleQualityGovernor(60f, 10, 2);
+        feed(governor, SLOW, 20);
+        assertEquals(BubbleQualityGovernor.LEVEL_SIMPLE_NECK, governor.getLevel());
+        feed(governor, FAST, 10);
+        assertEquals(BubbleQualityGovernor.LEVEL_SIMPLE_NECK, governor.getLevel());
+        feed(governor, FAST, 10);
+        assertEquals(BubbleQualityGovernor.LEVEL_NO_ANTI_ALIAS, governor.getLevel());
+        feed(governor, FAST, 20);
+        assertEquals(BubbleQualityGovernor.LEVEL_FULL, governor.getLevel());
+    }
+
+    @Test
+    public void mediumFrames_neitherStepDownNorUp() throws Exception {
+        BubbleQualityGovernor governor = new BubbleQualityGovernor(60f, 10, 2);
+        feed(governor, SLOW, 10);
+        feed(governor, MEDIUM, 100);
+        assertEquals(BubbleQualityGovernor.LEVEL_NO_ANTI_ALIAS, governor.getLevel());
+    }
+
+    @Test
+    public void maxLevel_capsStepDownAndNotifiesListener() throws Exception {
+        BubbleQualityGovernor governor = new BubbleQualityGovernor(60f, 10, 2);
+        final int[] last = new int[2];
+        governor.setOnQualityChangeListener(new BubbleQualityGovernor.OnQualityChangeListener() {
+            @Override
+            public void onQualityChanged(int oldLevel, int newLevel) {
+                last[0] = oldLevel;
+                last[1] = newLevel;
+            }
+        });
+        feed(governor, SLOW, 100);
+        assertEquals(BubbleQualityGovernor.LEVEL_NO_EXPLOSION, last[1]);
+        governor.setMaxLevel(BubbleQualityGovernor.LEVEL_SIMPLE_NECK);
+        assertEquals(BubbleQualityGovernor.LEVEL_NO_EXPLOSION, last[0]);
+        assertEquals(BubbleQualityGovernor.LEVEL_SIMPLE_NECK, last[1]);
+        feed(governor, SLOW, 100);
+        assertEquals(BubbleQualityGovernor.LEVEL_SIMPLE_NECK, governor.getLevel());
+        assertTrue(governor.getTransitionCount() >= 5);
+    }
+
+    @Test
+    public void loweringCapAfterStepDown_notifiesApplierAndListener() throws Exception {
+        BubbleQualityGovernor governor = new BubbleQualityGovernor(60f, 10, 2);
+        final int[] applied = {-1};
+        final int[] listened = {-1};
+        governor.setLevelApplier(new BubbleQualityGovernor.OnQualityChangeListener() {
+            @Override
+            public void onQualityChanged(int oldLevel, int newLevel) {
+                applied[0] = newLevel;
+            }
+        });
+        feed(governor, SLOW, 100);
+        assertEquals(BubbleQualityGovernor.LEVEL_NO_EXPLOSION, applied[0]);
+        //公开的监听不会替换掉应用级别的回调
+        governor.setOnQualityChangeListener(new BubbleQualityGovernor.OnQualityChangeListener() {
+            @Override
+            public void onQualityChanged(int oldLevel, int newLevel) {
+                listened[0] = newLevel;
+            }
+        });
+        //没有新的帧，只改上限
+        governor.setMaxLevel(BubbleQualityGovernor.LEVEL_SIMPLE_NECK);
+        assertEquals(BubbleQualityGovernor.LEVEL_SIMPLE_NECK, governor.getLevel());
+        assertEquals(BubbleQualityGovernor.LEVEL_SIMPLE_NECK, applied[0]);
+        assertEquals(BubbleQualityGovernor.LEVEL_SIMPLE_NECK, listened[0]);
+    }
+
+    private static void feed(BubbleQualityGovernor governor, long drawNanos, int frames) {
+        for (int i = 0; i < frames; i++) {
+            governor.onFrame(drawNanos);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.boco.dragbubbleview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 气泡拖拽模拟的单元测试
+ */
+public class BubbleSimulationTest {
+
+    private static final float RADIUS = 24f;
+
+    @Test
+    public void dragInsideStickyRange_restoresToAnchor() throws Exception {
+        BubbleSimulation simulation = newSimulation();
+        assertTrue(simulation.down(100f, 100f));
+        assertEquals(BubbleSimulation.EVENT_DRAG, simulation.move(160f, 100f));
+        assertTrue(simulation.isNeckVisible());
+        assertEquals(RADIUS - 6f, simulation.getCircleRadius(), 1e-4f);
+
+        assertEquals(BubbleSimulation.EVENT_NONE, simulation.up());
+        assertTrue(simulation.isRestoring());
+        for (int frame = 0; frame < 31; frame++) {
+            assertEquals(BubbleSimulation.EVENT_NONE, simulation.step(16f));
+        }
+        assertEquals(BubbleSimulation.EVENT_RESTORE, simulation.step(4f));
+        assertFalse(simulation.isAnimating());
+        assertEquals(BubbleDragRules.STATE_DEFAULT, simulation.getState());
+        assertEquals(100f, simulation.getBubbleX(), 0f);
+        assertEquals(100f, simulation.getBubbleY(), 0f);
+    }
+
+    @Test
+    public void dragPastMaxDistance_dismisses() throws Exception {
+        BubbleSimulation simulation = newSimulation();
+        assertTrue(simulation.down(100f, 100f));
+        assertEquals(BubbleSimulation.EVENT_MOVE, simulation.move(100f, 100f + 8 * RADIUS));
+        assertFalse(simulation.isNeckVisible());
+        //移动状态下只更新位置，不再重复通知
+        assertEquals(BubbleSimulation.EVENT_NONE, simulation.move(100f, 100f + 9 * RADIUS));
+
+        assertEquals(BubbleSimulation.EVENT_DISMISS, simulation.up());
+        assertTrue(simulation.isExploding());
+        simulation.step(248f);
+        assertEquals(2, simulation.getExplosionFrame(5));
+        simulation.step(252f);
+        assertFalse(simulation.isAnimating());
+        assertEquals(BubbleDragRules.STATE_DISMISS, simulation.getState());
+        assertFalse(simulation.down(100f, 100f + 9 * RADIUS));
+    }
+
+    @Test
+    public void finishDismiss_keepsBubbleDismissed() throws Exception {
+        BubbleSimulation simulation = newSimulation();
+        simulation.finishDismiss();
+        assertEquals(BubbleDragRules.STATE_DEFAULT, simulation.getState());
+        assertTrue(simulation.dismiss());
+        simulation.step(100f);
+        simulation.finishDismiss();
+        assertFalse(simulation.isAnimating());
+        assertEquals(BubbleDragRules.STATE_DISMISS, simulation.getState());
+        assertFalse(simulation.down(100f, 100f));
+    }
+
+    @Test
+    public void cancelFarFromAnchor_restoresInsteadOfDismissing() throws Exception {
+        BubbleSimulation simulation = newSimulation();
+        simulation.down(100f, 100f);
+        simulation.move(100f + 8 * RADIUS, 100f);
+        simulation.cancel();
+        assertTrue(simulation.isRestoring());
+        assertEquals(BubbleDragRules.STATE_MOVE, simulation.getState());
+    }
+
+    @Test
+    public void moveBackNearAnchor_restores() throws Exception {
+        BubbleSimulation simulation = newSimulation();
+        simulation.down(100f, 100f);
+        simulation.move(100f + 8 * RADIUS, 100f);
+        simulation.move(100f + RADIUS, 100f);
+        assertEquals(BubbleSimulation.EVENT_NONE, simulation.up());
+        assertTrue(simulation.isRestoring());
+    }
+
+    @Test
+    public void touchOutsideSlop_isIgnored() throws Exception {
+        BubbleSimulation simulation = newSimulation();
+        assertFalse(simulation.down(100f + 4 * RADIUS, 100f));
+        assertEquals(BubbleSimulation.EVENT_NONE, simulation.move(300f, 300f));
+        assertEquals(100f, simulation.getBubbleX(), 0f);
+    }
+
+    @Test
+    public void dismissWithoutDrag_explodesAtAnchorOnce() throws Exception {
+        BubbleSimulation simulation = newSimulation();
+        assertTrue(simulation.dismiss());
+        assertFalse(simulation.dismiss());
+        assertTrue(simulation.isExploding());
+        assertEquals(100f, simulation.getBubbleX(), 0f);
+        assertFalse(simulation.down(100f, 100f));
+        for (int i = 0; i < 32 && simulation.isAnimating(); i++) {
+            simulation.step(16f);
+        }
+        assertFalse(simulation.isAnimating());
+        assertEquals(BubbleDragRules.STATE_DISMISS, simulation.getState());
+    }
+
+    @Test
+    public void step_isIndependentOfFrameInterval() throws Exception {
+        BubbleSimulation steady = newSimulation();
+        BubbleSimulation jittery = newSimulation();
+        startRestore(steady);
+        startRestore(jittery);
+        float[] intervals = {7f, 1f, 33f, 16f, 3f, 12f};
+        float elapsed = 0;
+        int i = 0;
+        while (elapsed < 240f) {
+            float delta = intervals[i++ % intervals.length];
+            jittery.step(delta);
+            elapsed += delta;
+        }
+        //两边都推进到同一个固定步长的整数倍
+        float steps = (float) Math.floor(elapsed / BubbleSimulation.STEP_MILLIS);
+        steady.step(steps * BubbleSimulation.STEP_MILLIS);
+        assertEquals(steady.getBubbleX(), jittery.getBubbleX(), 0f);
+        assertEquals(steady.getBubbleY(), jittery.getBubbleY(), 0f);
+    }
+
+    @Test
+    public void dragCycle_allocatesNothingAfterWarmUp() throws Exception {
+        final BubbleSimulation simulation = newSimulation();
+        assertEquals(0, AllocationMeter.bytesAllocatedBy(new AllocationMeter.Workload() {
+            @Override
+            public float run(int iteration) {
+                return runDrag(simulation, iteration);
+            }
+        }, 20000, 1000));
+    }
+
+    private static BubbleSimulation newSimulation() {
+        BubbleSimulation simulation = new BubbleSimulation(RADIUS);
+        simulation.reset(100f, 100f);
+        return simulation;
+    }
+
+    private static void startRestore(BubbleSimulation simulation) {
+        simulation.down(100f, 100f);
+        simulation.move(150f, 130f);
+        simulation.up();
+    }
+
+    /**
+     * 一次完整的按下-拖拽-松手-动画，间距随 seed 变化，覆盖复原和消失
+     */
+    static float runDrag(BubbleSimulation simulation, int seed) {
+        simulation.reset(100f, 100f);
+        simulation.down(100f, 100f);
+        float reach = (seed % 12) * RADIUS;
+        float sum = 0;
+        for (int i = 1; i <= 30; i++) {
+            simulation.move(100f + reach * i / 30, 100f + (seed % 7));
+            if (simulation.isNeckVisible()) {
+                sum += simulation.computeNeck().getControlX();
+            }
+        }
+        simulation.up();
+        while (simulation.isAnimating()) {
+            simulation.step(16f);
+            sum += simulation.getBubbleX();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,86 @@
+package com.boco.dragbubbleview;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * 网格索引的单元测试，结果与逐个比较的线性查找一致
+ */
+public class BubbleSpatialIndexTest {
+
+    private static final int COUNT = 200;
+    private static final float WIDTH = 1080;
+    private static final float HEIGHT = 1920;
+
+    @Test
+    public void query_matchesLinearScanWhileBubblesMove() throws Exception {
+        Random random = new Random(42);
+        BubbleSpatialIndex index = new BubbleSpatialIndex(100);
+        index.setBounds(WIDTH, HEIGHT);
+        float[] x = new float[COUNT];
+        float[] y = new float[COUNT];
+        float[] slop = new float[COUNT];
+        boolean[] present = new boolean[COUNT];
+        for (int id = 0; id < COUNT; id++) {
+            x[id] = random.nextFloat() * WIDTH;
+            y[id] = random.nextFloat() * HEIGHT;
+            slop[id] = 20 + random.nextFloat() * 60;
+            present[id] = true;
+            index.put(id, x[id], y[id], slop[id]);
+        }
+        for (int step = 0; step < 5000; step++) {
+            int id = random.nextInt(COUNT);
+            switch (random.nextInt(3)) {
+                case 0:
+                    index.remove(id);
+                    present[id] = false;
+                    break;
+                default:
+                    //允许拖出边界
+                    x[id] = random.nextFloat() * (WIDTH + 400) - 200;
+                    y[id] = random.nextFloat() * (HEIGHT + 400) - 200;
+                    present[id] = true;
+                    index.put(id, x[id], y[id], slop[id]);
+                    break;
+            }
+            float queryX = random.nextFloat() * (WIDTH + 400) - 200;
+            float queryY = random.nextFloat() * (HEIGHT + 400) - 200;
+            assertEquals(linearScan(x, y, slop, present, queryX, queryY),
+                    index.query(queryX, queryY));
+        }
+    }
+
+    @Test
+    public void setBounds_keepsExistingBubbles() throws Exception {
+        BubbleSpatialIndex index = new BubbleSpatialIndex(50);
+        index.put(3, 400, 400, 30);
+        index.setBounds(1000, 1000);
+        assertEquals(3, index.query(410, 395));
+        index.remove(3);
+        assertFalse(index.contains(3));
+        assertEquals(-1, index.query(410, 395));
+    }
+
+    private static int linearScan(float[] x, float[] y, float[] slop, boolean[] present,
+                                  float queryX, float queryY) {
+        int found = -1;
+        float minDistanceSq = Float.MAX_VALUE;
+        for (int id = 0; id < x.length; id++) {
+            if (!present[id]) {
+                continue;
+            }
+            float dx = queryX - x[id];
+            float dy = queryY - y[id];
+            float distanceSq = dx * dx + dy * dy;
+            if (distanceSq < slop[id] * slop[id] && distanceSq < minDistanceSq) {
+                minDistanceSq = distanceSq;
+                found = id;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,132 @@
+package com.boco.dragbubbleview;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 气泡状态回调分发的单元测试
+ */
+public class BubbleStateDispatcherTest {
+
+    @Test
+    public void dragEventsWithinFrame_deliveredOnce() throws Exception {
+        BubbleStateDispatcher dispatcher = new BubbleStateDispatcher();
+        RecordingListener listener = new RecordingListener();
+        dispatcher.addListener(listener);
+
+        assertTrue(dispatcher.post(BubbleSimulation.EVENT_DRAG));
+        for (int i = 0; i < 20; i++) {
+            assertFalse(dispatcher.post(BubbleSimulation.EVENT_DRAG));
+        }
+        dispatcher.post(BubbleSimulation.EVENT_MOVE);
+        dispatcher.post(BubbleSimulation.EVENT_DISMISS);
+        assertEquals(0, listener.mEvents.size());
+
+        dispatcher.flush();
+        assertEquals("[drag, move, dismiss]", listener.mEvents.toString());
+        assertEquals(23, dispatcher.getPostedCount());
+        assertEquals(3, dispatcher.getDeliveredCount());
+    }
+
+    @Test
+    public void eachFrame_needsItsOwnFlush() throws Exception {
+        BubbleStateDispatcher dispatcher = new BubbleStateDispatcher();
+        RecordingListener listener = new RecordingListener();
+        dispatcher.addListener(listener);
+        assertTrue(dispatcher.post(BubbleSimulation.EVENT_DRAG));
+        dispatcher.flush();
+        assertTrue(dispatcher.post(BubbleSimulation.EVENT_DRAG));
+        dispatcher.flush();
+        assertEquals("[drag, drag]", listener.mEvents.toString());
+    }
+
+    @Test
+    public void multipleListeners_addAndRemove() throws Exception {
+        BubbleStateDispatcher dispatcher = new BubbleStateDispatcher();
+        RecordingListener first = new RecordingListener();
+        RecordingListener second = new RecordingListener();
+        //没有监听时不需要安排分发
+        assertFalse(dispatcher.post(BubbleSimulation.EVENT_DRAG));
+        dispatcher.addListener(first);
+        dispatcher.addListener(second);
+        dispatcher.addListener(first);
+        dispatcher.post(BubbleSimulation.EVENT_RESTORE);
+        dispatcher.flush();
+        dispatcher.removeListener(first);
+        dispatcher.post(BubbleSimulation.EVENT_DISMISS);
+        dispatcher.flush();
+        assertEquals("[restore]", first.mEvents.toString());
+        assertEquals("[restore, dismiss]", second.mEvents.toString());
+    }
+
+    @Test
+    public void executor_deliversQueuedEventsWithOneTask() throws Exception {
+        BubbleStateDispatcher dispatcher = new BubbleStateDispatcher();
+        RecordingListener listener = new RecordingListener();
+        dispatcher.addListener(listener);
+        QueueExecutor executor = new QueueExecutor();
+        dispatcher.setExecutor(executor);
+
+        dispatcher.post(BubbleSimulation.EVENT_DRAG);
+        dispatcher.flush();
+        dispatcher.post(BubbleSimulation.EVENT_DRAG);
+        dispatcher.post(BubbleSimulation.EVENT_MOVE);
+        dispatcher.flush();
+        assertEquals(1, executor.mTasks.size());
+        assertEquals(0, listener.mEvents.size());
+
+        executor.runAll();
+        //Executor 落后时连续的 onDrag 也会合并
+        assertEquals("[drag, move]", listener.mEvents.toString());
+        dispatcher.post(BubbleSimulation.EVENT_DISMISS);
+        dispatcher.flush();
+        executor.runAll();
+        assertEquals("[drag, move, dismiss]", listener.mEvents.toString());
+    }
+
+    private static class RecordingListener implements DragBubbleView.OnBubbleStateListener {
+        private final List<String> mEvents = new ArrayList<>();
+
+        @Override
+        public void onDrag() {
+            mEvents.add("drag");
+        }
+
+        @Override
+        public void onMove() {
+            mEvents.add("move");
+        }
+
+        @Override
+        public void onRestore() {
+            mEvents.add("restore");
+        }
+
+        @Override
+        public void onDismiss() {
+            mEvents.add("dismiss");
+        }
+    }
+
+    private static class QueueExecutor implements Executor {
+        private final List<Runnable> mTasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            mTasks.add(command);
+        }
+
+        void runAll() {
+            while (!mTasks.isEmpty()) {
+                mTasks.remove(0).run();
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.boco.dragbubbleview;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 跨线程合并未读数的单元测试
+ */
+public class ConflatedCountTest {
+
+    @Test
+    public void burst_isAppliedOnceWithLatestValue() throws Exception {
+        ConflatedCount count = new ConflatedCount();
+        assertTrue(count.post(1));
+        assertFalse(count.post(2));
+        assertFalse(count.post(3));
+        assertEquals(3, count.take(-1));
+        assertEquals(-1, count.take(-1));
+        assertEquals(3, count.getPostCount());
+        assertEquals(2, count.getConflatedCount());
+        assertEquals(1, count.getApplyCount());
+    }
+
+    @Test
+    public void postAfterTake_schedulesAgain() throws Exception {
+        ConflatedCount count = new ConflatedCount();
+        count.post(5);
+        count.take(0);
+        assertTrue(count.post(6));
+        assertEquals(6, count.take(0));
+    }
+
+    @Test
+    public void cancel_dropsPendingValue() throws Exception {
+        ConflatedCount count = new ConflatedCount();
+        count.post(7);
+        count.cancel();
+        assertEquals(-1, count.take(-1));
+        assertTrue(count.post(8));
+        assertEquals(8, count.take(-1));
+    }
+
+    @Test
+    public void concurrentProducers_neverLoseTheLastValue() throws Exception {
+        final ConflatedCount count = new ConflatedCount();
+        final int threads = 4;
+        final int posts = 10000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final int[] scheduled = new int[threads];
+        Thread[] producers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int index = t;
+            producers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 1; i <= posts; i++) {
+                        if (count.post(i)) {
+                            scheduled[index]++;
+                        }
+                    }
+                }
+            });
+            producers[t].start();
+        }
+        start.countDown();
+        //主线程一边取一边等待，模拟每帧取一次
+        int taken = 0;
+        int last = -1;
+        boolean running = true;
+        while (running) {
+            running = false;
+            for (Thread producer : producers) {
+                running |= producer.isAlive();
+            }
+            int value = count.take(-1);
+            if (value != -1) {
+                taken++;
+                last = value;
+            }
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        int value = count.take(-1);
+        if (value != -1) {
+            taken++;
+            last = value;
+        }
+        //每个线程最后写入的都是 posts，全局最后一次写入必然也是
+        assertEquals(posts, last);
+        int totalScheduled = 0;
+        for (int s : scheduled) {
+            totalScheduled += s;
+        }
+        assertEquals(threads * posts, count.getPostCount());
+        assertEquals(threads * posts - totalScheduled, count.getConflatedCount());
+        assertEquals(totalScheduled, taken);
+        assertEquals(taken, count.getApplyCount());
+    }
+}
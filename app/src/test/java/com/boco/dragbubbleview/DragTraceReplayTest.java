@@ -0,0 +1,92 @@
+package com.boco.dragbubbleview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 用录制的触摸序列回放拖拽，比较按帧合并加预测和逐个事件处理的位置误差和每帧工作量
+ * <p>
+ * 模型：触摸事件按采样时间到达，每 16ms 一帧，帧开始时处理一次移动，
+ * 画面在帧开始后 DISPLAY_LATENCY 毫秒显示出来，误差为显示时刻手指真实位置与气泡位置的距离。
+ */
+public class DragTraceReplayTest {
+
+    private static final long FRAME_INTERVAL = 16;
+    private static final long DISPLAY_LATENCY = 16;
+
+    private MotionTrace mTrace;
+
+    @Before
+    public void setUp() throws Exception {
+        mTrace = MotionTrace.load("traces/drag_240hz.txt");
+    }
+
+    @Test
+    public void predictionReducesDisplayedPositionError() throws Exception {
+        Result latest = replay(null);
+        Result predicted = replay(new LinearMotionPredictor(40, DISPLAY_LATENCY));
+        assertTrue("latest=" + latest.meanError + " predicted=" + predicted.meanError,
+                predicted.meanError < latest.meanError * 0.6f);
+    }
+
+    @Test
+    public void coalescingAppliesAtMostOneMovePerFrame() throws Exception {
+        Result result = replay(new LinearMotionPredictor());
+        assertTrue("applies=" + result.applies + " frames=" + result.frames,
+                result.applies <= result.frames);
+        assertTrue(result.applies > 0);
+        //240Hz 的触摸在 60Hz 刷新下每帧约 4 个事件
+        assertTrue("events per frame " + (float) result.events / result.frames,
+                result.events >= 3 * result.frames);
+    }
+
+    /**
+     * 经由 {@link BubbleMoveCoalescer} 回放，帧回调只在它要求安排时执行，次数取它自己的计数
+     *
+     * @param predictor 为 null 时使用最后一个采样
+     */
+    private Result replay(BubbleMotionPredictor predictor) {
+        Result result = new Result();
+        BubbleMoveCoalescer coalescer = new BubbleMoveCoalescer();
+        coalescer.setPredictor(predictor);
+        float[] truth = new float[2];
+        float[] shown = new float[2];
+        double errorSum = 0;
+        coalescer.start(mTrace.times[0], mTrace.x[0], mTrace.y[0]);
+        int sample = 1;
+        boolean scheduled = false;
+        for (long frame = mTrace.startTime() + FRAME_INTERVAL; frame <= mTrace.endTime();
+             frame += FRAME_INTERVAL) {
+            while (sample < mTrace.size() && mTrace.times[sample] <= frame) {
+                if (coalescer.queue(mTrace.times[sample], mTrace.x[sample], mTrace.y[sample])) {
+                    assertFalse("scheduled twice in one frame", scheduled);
+                    scheduled = true;
+                }
+                sample++;
+            }
+            result.frames++;
+            if (!scheduled) {
+                continue;
+            }
+            scheduled = false;
+            assertTrue(coalescer.apply(frame + DISPLAY_LATENCY, shown));
+            assertFalse(coalescer.isPending());
+            mTrace.positionAt(frame + DISPLAY_LATENCY, truth);
+            errorSum += Math.hypot(shown[0] - truth[0], shown[1] - truth[1]);
+        }
+        result.events = coalescer.getEventCount();
+        result.applies = coalescer.getApplyCount();
+        result.meanError = (float) (errorSum / result.applies);
+        return result;
+    }
+
+    private static final class Result {
+        int frames;
+        int events;
+        int applies;
+        float meanError;
+    }
+}
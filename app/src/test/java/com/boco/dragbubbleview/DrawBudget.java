@@ -0,0 +1,40 @@
+package com.boco.dragbubbleview;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 一个状态下每帧允许的绘制上限
+ */
+final class DrawBudget {
+
+    private final int mMaxDrawCalls;
+    private final int mMaxPaths;
+    private final int mMaxPathSegments;
+    private final int mMaxMeshVertices;
+
+    /**
+     * @param maxDrawCalls    绘制调用总数
+     * @param maxPaths        填充的路径条数
+     * @param maxPathSegments 所有路径的段数之和
+     * @param maxMeshVertices drawMesh 的顶点数之和
+     */
+    DrawBudget(int maxDrawCalls, int maxPaths, int maxPathSegments, int maxMeshVertices) {
+        mMaxDrawCalls = maxDrawCalls;
+        mMaxPaths = maxPaths;
+        mMaxPathSegments = maxPathSegments;
+        mMaxMeshVertices = maxMeshVertices;
+    }
+
+    /**
+     * 检查一帧的记录，超出时断言失败并输出调用序列
+     *
+     * @param frame 用于错误信息，例如 "drag frame 3 (STATE_DRAG)"
+     */
+    void check(String frame, RecordingBubbleCanvas canvas) {
+        String ops = frame + ": [" + canvas.getOps() + "]";
+        assertTrue("too many draw calls in " + ops, canvas.getDrawCalls() <= mMaxDrawCalls);
+        assertTrue("too many paths in " + ops, canvas.paths <= mMaxPaths);
+        assertTrue("path too complex in " + ops, canvas.pathSegments <= mMaxPathSegments);
+        assertTrue("mesh too large in " + ops, canvas.meshVertices <= mMaxMeshVertices);
+    }
+}
@@ -0,0 +1,40 @@
+package com.boco.dragbubbleview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 按图层类型统计绘制耗时的单元测试
+ */
+public class LayerDrawStatsTest {
+
+    @Test
+    public void record_separatedByLayerType() throws Exception {
+        LayerDrawStats stats = new LayerDrawStats();
+        stats.record(0, 100);
+        stats.record(0, 300);
+        stats.record(2, 50);
+        assertEquals(2, stats.getCount(0));
+        assertEquals(400, stats.getTotalNanos(0));
+        assertEquals(300, stats.getMaxNanos(0));
+        assertEquals(200, stats.getAverageNanos(0));
+        assertEquals(0, stats.getCount(1));
+        assertEquals(0, stats.getAverageNanos(1));
+        assertEquals(1, stats.getCount(2));
+        assertEquals(50, stats.getTotalNanos(2));
+    }
+
+    @Test
+    public void reset_clearsAllLayerTypes() throws Exception {
+        LayerDrawStats stats = new LayerDrawStats();
+        stats.record(1, 100);
+        stats.record(2, 100);
+        stats.reset();
+        for (int i = 0; i < LayerDrawStats.LAYER_TYPE_COUNT; i++) {
+            assertEquals(0, stats.getCount(i));
+            assertEquals(0, stats.getTotalNanos(i));
+            assertEquals(0, stats.getMaxNanos(i));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.boco.dragbubbleview;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 录制下来的触摸采样序列
+ * <p>
+ * 文本格式每行一个采样 "时间(ms) x y"，以 # 开头的行是注释。
+ * 可以用 MotionEvent 的 getHistoricalEventTime/X/Y 和 getEventTime/X/Y 导出。
+ */
+final class MotionTrace {
+
+    final long[] times;
+    final float[] x;
+    final float[] y;
+
+    private MotionTrace(long[] times, float[] x, float[] y) {
+        this.times = times;
+        this.x = x;
+        this.y = y;
+    }
+
+    static MotionTrace load(String resource) throws IOException {
+        InputStream in = MotionTrace.class.getClassLoader().getResourceAsStream(resource);
+        if (in == null) {
+            throw new IOException("trace not found: " + resource);
+        }
+        List<String[]> rows = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                rows.add(line.split("\\s+"));
+            }
+        } finally {
+            reader.close();
+        }
+        long[] times = new long[rows.size()];
+        float[] x = new float[rows.size()];
+        float[] y = new float[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            times[i] = Long.parseLong(rows.get(i)[0]);
+            x[i] = Float.parseFloat(rows.get(i)[1]);
+            y[i] = Float.parseFloat(rows.get(i)[2]);
+        }
+        return new MotionTrace(times, x, y);
+    }
+
+    int size() {
+        return times.length;
+    }
+
+    long startTime() {
+        return times[0];
+    }
+
+    long endTime() {
+        return times[times.length - 1];
+    }
+
+    /**
+     * 手指在 time 时刻的真实位置，采样之间线性插值
+     */
+    void positionAt(long time, float[] out) {
+        int last = times.length - 1;
+        if (time <= times[0]) {
+            out[0] = x[0];
+            out[1] = y[0];
+            return;
+        }
+        if (time >= times[last]) {
+            out[0] = x[last];
+            out[1] = y[last];
+            return;
+        }
+        int i = 0;
+        while (times[i + 1] < time) {
+            i++;
+        }
+        float f = (float) (time - times[i]) / (times[i + 1] - times[i]);
+        out[0] = x[i] + (x[i + 1] - x[i]) * f;
+        out[1] = y[i] + (y[i + 1] - y[i]) * f;
+    }
+}
@@ -0,0 +1,85 @@
+package com.boco.dragbubbleview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 爆炸粒子计算的单元测试
+ */
+public class ParticleSystemTest {
+
+    private static final float RADIUS = 24f;
+
+    @Test
+    public void emit_respectsBudget() throws Exception {
+        ParticleSystem particles = new ParticleSystem(32);
+        particles.emit(100f, 100f, RADIUS, 1000, 1);
+        assertEquals(32, particles.getCount());
+        particles.emit(100f, 100f, RADIUS, 8, 2);
+        assertEquals(8, particles.getCount());
+    }
+
+    @Test
+    public void update_isIndependentOfFrameRate() throws Exception {
+        ParticleSystem steady = new ParticleSystem(48);
+        ParticleSystem jittery = new ParticleSystem(48);
+        steady.emit(100f, 100f, RADIUS, 48, 7);
+        jittery.emit(100f, 100f, RADIUS, 48, 7);
+        for (float progress = 0; progress < 0.5f; progress += 0.013f) {
+            jittery.update(progress);
+        }
+        jittery.update(0.5f);
+        steady.update(0.5f);
+        for (int i = 0; i < 48; i++) {
+            assertEquals(steady.getX(i), jittery.getX(i), 0f);
+            assertEquals(steady.getY(i), jittery.getY(i), 0f);
+            assertEquals(steady.getSize(i), jittery.getSize(i), 0f);
+            assertEquals(steady.getAlpha(i), jittery.getAlpha(i), 0f);
+        }
+    }
+
+    @Test
+    public void particles_stayInsideBoundsAndFadeOut() throws Exception {
+        ParticleSystem particles = new ParticleSystem(64);
+        particles.emit(100f, 100f, RADIUS, 64, 3);
+        for (int step = 0; step <= 100; step++) {
+            particles.update(step / 100f);
+            for (int i = 0; i < particles.getCount(); i++) {
+                float size = particles.getSize(i);
+                assertTrue(particles.getX(i) - size >= particles.getLeft());
+                assertTrue(particles.getX(i) + size <= particles.getRight());
+                assertTrue(particles.getY(i) - size >= particles.getTop());
+                assertTrue(particles.getY(i) + size <= particles.getBottom());
+            }
+        }
+        for (int i = 0; i < particles.getCount(); i++) {
+            assertEquals(0f, particles.getAlpha(i), 1e-6f);
+        }
+    }
+
+    @Test
+    public void burst_allocatesNothing() throws Exception {
+        final ParticleSystem particles = new ParticleSystem(48);
+        assertEquals(0, AllocationMeter.bytesAllocatedBy(new AllocationMeter.Workload() {
+            @Override
+            public float run(int iteration) {
+                return runBurst(particles, iteration);
+            }
+        }, 5000, 500));
+    }
+
+    /**
+     * 一次爆炸，按 60fps 推进 500ms
+     */
+    private static float runBurst(ParticleSystem particles, int seed) {
+        particles.emit(100f, 100f, RADIUS, 48, seed + 1);
+        float sum = 0;
+        for (int frame = 0; frame <= 30; frame++) {
+            particles.update(frame / 30f);
+            sum += particles.getX(frame % 48);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,129 @@
+package com.boco.dragbubbleview;
+
+/**
+ * 记录一帧内绘制调用的 {@link BubbleCanvas}
+ * <p>
+ * 按类型统计绘制次数和路径的段数，同时保留调用序列，断言失败时输出，
+ * 不需要设备就能看到每个状态下 onDraw 实际发出了哪些绘制。
+ */
+final class RecordingBubbleCanvas implements BubbleCanvas {
+
+    private final boolean mSupportsMesh;
+    private final StringBuilder mOps = new StringBuilder();
+
+    int circles;
+    int roundRects;
+    int paths;
+    /**
+     * 所有路径的 quadTo 和 lineTo 总数
+     */
+    int pathSegments;
+    int meshes;
+    int meshVertices;
+    int texts;
+    /**
+     * 爆炸效果，设备上是一次 drawBitmap 或替代动画的 drawCircle
+     */
+    int explosions;
+    private int mCurrentSegments;
+
+    RecordingBubbleCanvas(boolean supportsMesh) {
+        mSupportsMesh = supportsMesh;
+    }
+
+    /**
+     * 清空记录，开始新的一帧
+     */
+    void reset() {
+        circles = 0;
+        roundRects = 0;
+        paths = 0;
+        pathSegments = 0;
+        meshes = 0;
+        meshVertices = 0;
+        texts = 0;
+        explosions = 0;
+        mCurrentSegments = 0;
+        mOps.setLength(0);
+    }
+
+    /**
+     * 本帧发出的绘制调用次数，moveTo、quadTo、lineTo 只构建路径，不计入
+     */
+    int getDrawCalls() {
+        return circles + roundRects + paths + meshes + texts + explosions;
+    }
+
+    /**
+     * 本帧的调用序列，例如 "circle, path(3), text"
+     */
+    String getOps() {
+        return mOps.toString();
+    }
+
+    private void record(String op) {
+        if (mOps.length() > 0) {
+            mOps.append(", ");
+        }
+        mOps.append(op);
+    }
+
+    @Override
+    public void drawCircle(float centerX, float centerY, float radius, int color) {
+        circles++;
+        record("circle");
+    }
+
+    @Override
+    public void drawRoundRect(float left, float top, float right, float bottom, float radius,
+                              int color) {
+        roundRects++;
+        record("roundRect");
+    }
+
+    @Override
+    public void moveTo(float x, float y) {
+        mCurrentSegments = 0;
+    }
+
+    @Override
+    public void quadTo(float controlX, float controlY, float x, float y) {
+        mCurrentSegments++;
+    }
+
+    @Override
+    public void lineTo(float x, float y) {
+        mCurrentSegments++;
+    }
+
+    @Override
+    public void fillPath(int color) {
+        paths++;
+        pathSegments += mCurrentSegments;
+        record("path(" + mCurrentSegments + ")");
+    }
+
+    @Override
+    public boolean supportsMesh() {
+        return mSupportsMesh;
+    }
+
+    @Override
+    public void drawMesh(float[] vertices, int vertexCount, int color) {
+        meshes++;
+        meshVertices += vertexCount;
+        record("mesh(" + vertexCount + ")");
+    }
+
+    @Override
+    public void drawText(String text, float x, float y) {
+        texts++;
+        record("text");
+    }
+
+    @Override
+    public void drawExplosion(float progress) {
+        explosions++;
+        record("explosion");
+    }
+}
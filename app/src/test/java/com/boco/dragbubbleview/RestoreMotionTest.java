@@ -0,0 +1,55 @@
+package com.boco.dragbubbleview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 复原动画计算的单元测试
+ */
+public class RestoreMotionTest {
+
+    private static final int FRAMES_PER_RESTORE = 60;
+
+    @Test
+    public void restore_endsAtStickyCircle() throws Exception {
+        RestoreMotion motion = new RestoreMotion();
+        motion.start(200f, 80f, 20f, 20f);
+        motion.update(BubbleInterpolators.restoreWobble().getInterpolation(0f));
+        assertEquals(200f, motion.getX(), 1e-3f);
+        assertEquals(80f, motion.getY(), 1e-3f);
+        motion.update(1f);
+        assertEquals(20f, motion.getX(), 1e-3f);
+        assertEquals(20f, motion.getY(), 1e-3f);
+    }
+
+    /**
+     * 只覆盖复原的插值计算(RestoreMotion 和回弹表)，不经过触摸处理、帧时钟和 View 的绘制，
+     * 这些部分在 JVM 上无法运行，分配情况需要在设备上用 {@link BubbleMetrics} 查看
+     */
+    @Test
+    public void restoreInterpolation_allocatesNothingAfterWarmUp() throws Exception {
+        final RestoreMotion motion = new RestoreMotion();
+        final BubbleInterpolators.SpringTable table = BubbleInterpolators.restoreWobble();
+        assertEquals(0, AllocationMeter.bytesAllocatedBy(new AllocationMeter.Workload() {
+            @Override
+            public float run(int iteration) {
+                return runCycle(motion, table, iteration);
+            }
+        }, 20000, 1000));
+    }
+
+    /**
+     * 从一个松手位置插值回黏质小球，覆盖一次复原的全部帧
+     */
+    private static float runCycle(RestoreMotion motion, BubbleInterpolators.SpringTable table,
+                                  int seed) {
+        float dragX = 100 + seed % 50;
+        float dragY = 40 + seed % 30;
+        motion.start(dragX, dragY, 20f, 20f);
+        for (int frame = 0; frame <= FRAMES_PER_RESTORE; frame++) {
+            motion.update(table.getInterpolation((float) frame / FRAMES_PER_RESTORE));
+        }
+        return motion.getX() + motion.getY();
+    }
+}
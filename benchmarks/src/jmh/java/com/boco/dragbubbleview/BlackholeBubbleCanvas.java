@@ -0,0 +1,71 @@
+package com.boco.dragbubbleview;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 把所有绘制参数交给 Blackhole，只测量绘制逻辑本身
+ */
+final class BlackholeBubbleCanvas implements BubbleCanvas {
+
+    private final Blackhole mBlackhole;
+
+    BlackholeBubbleCanvas(Blackhole blackhole) {
+        mBlackhole = blackhole;
+    }
+
+    @Override
+    public void drawCircle(float centerX, float centerY, float radius, int color) {
+        mBlackhole.consume(centerX + centerY + radius);
+        mBlackhole.consume(color);
+    }
+
+    @Override
+    public void drawRoundRect(float left, float top, float right, float bottom, float radius,
+                              int color) {
+        mBlackhole.consume(left + top + right + bottom + radius);
+        mBlackhole.consume(color);
+    }
+
+    @Override
+    public void moveTo(float x, float y) {
+        mBlackhole.consume(x + y);
+    }
+
+    @Override
+    public void quadTo(float controlX, float controlY, float x, float y) {
+        mBlackhole.consume(controlX + controlY + x + y);
+    }
+
+    @Override
+    public void lineTo(float x, float y) {
+        mBlackhole.consume(x + y);
+    }
+
+    @Override
+    public void fillPath(int color) {
+        mBlackhole.consume(color);
+    }
+
+    @Override
+    public boolean supportsMesh() {
+        return true;
+    }
+
+    @Override
+    public void drawMesh(float[] vertices, int vertexCount, int color) {
+        mBlackhole.consume(vertices);
+        mBlackhole.consume(vertexCount);
+        mBlackhole.consume(color);
+    }
+
+    @Override
+    public void drawText(String text, float x, float y) {
+        mBlackhole.consume(text);
+        mBlackhole.consume(x + y);
+    }
+
+    @Override
+    public void drawExplosion(float progress) {
+        mBlackhole.consume(progress);
+    }
+}
@@ -0,0 +1,87 @@
+package com.boco.dragbubbleview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个气泡每帧的计算和绘制
+ * <p>
+ * 每次调用对应一帧：静止、拖拽(移动一次并画出贝塞尔曲线)或复原(推进 16ms)。
+ * 配合 gc profiler 看每帧分配的字节数(gc.alloc.rate.norm)，正常应为 0。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BubbleRenderBenchmark {
+
+    private static final float RADIUS = 24f;
+    private static final float ANCHOR = 100f;
+
+    /**
+     * 三种文本长度分别对应圆形和两种圆角矩形
+     */
+    @Param({"1", "12", "99+"})
+    public String text;
+
+    private BubbleRenderer mRenderer;
+    private BlackholeBubbleCanvas mCanvas;
+    private BubbleSimulation mIdle;
+    private BubbleSimulation mDrag;
+    private BubbleSimulation mRestore;
+    private int mFrame;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        mRenderer = new BubbleRenderer();
+        mRenderer.setBubbleColor(0xffff0000);
+        mRenderer.setLabel(text, BubbleDragRules.shapeOf(text.length()), -RADIUS / 2, RADIUS / 2);
+        mCanvas = new BlackholeBubbleCanvas(blackhole);
+        mIdle = new BubbleSimulation(RADIUS);
+        mIdle.reset(ANCHOR, ANCHOR);
+        mDrag = new BubbleSimulation(RADIUS);
+        mDrag.reset(ANCHOR, ANCHOR);
+        mDrag.down(ANCHOR, ANCHOR);
+        mRestore = new BubbleSimulation(RADIUS);
+    }
+
+    @Benchmark
+    public void idleFrame() {
+        mRenderer.draw(mCanvas, mIdle);
+    }
+
+    @Benchmark
+    public void dragFrame() {
+        //在黏连范围内来回拖动
+        float offset = RADIUS + (mFrame++ & 63) * RADIUS / 16;
+        mDrag.move(ANCHOR + offset, ANCHOR + offset / 2);
+        mRenderer.draw(mCanvas, mDrag);
+    }
+
+    @Benchmark
+    public float neck() {
+        float offset = RADIUS + (mFrame++ & 63) * RADIUS / 16;
+        mDrag.move(ANCHOR + offset, ANCHOR + offset / 2);
+        return mDrag.computeNeck().getControlX();
+    }
+
+    @Benchmark
+    public void restoreFrame() {
+        if (!mRestore.isAnimating()) {
+            mRestore.reset(ANCHOR, ANCHOR);
+            mRestore.down(ANCHOR, ANCHOR);
+            mRestore.move(ANCHOR + 3 * RADIUS, ANCHOR + RADIUS);
+            mRestore.up();
+        }
+        mRestore.step(16f);
+        mRenderer.draw(mCanvas, mRestore);
+    }
+}
@@ -0,0 +1,56 @@
+package com.boco.dragbubbleview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 气泡拖拽模拟的吞吐量
+ * <p>
+ * 每次调用模拟一次完整的拖拽：按下、30 次移动、松手，再按 60fps 推进复原或消失动画直到结束。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BubbleSimulationBenchmark {
+
+    private static final float RADIUS = 24f;
+    private static final int MOVES = 30;
+
+    private BubbleSimulation mSimulation;
+    private int mSeed;
+
+    @Setup
+    public void setUp() {
+        mSimulation = new BubbleSimulation(RADIUS);
+    }
+
+    @Benchmark
+    public float drag() {
+        BubbleSimulation simulation = mSimulation;
+        int seed = mSeed++;
+        simulation.reset(100f, 100f);
+        simulation.down(100f, 100f);
+        //间距从 0 到 11 倍半径，复原和消失都会走到
+        float reach = (seed % 12) * RADIUS;
+        float sum = 0;
+        for (int i = 1; i <= MOVES; i++) {
+            simulation.move(100f + reach * i / MOVES, 100f);
+            if (simulation.isNeckVisible()) {
+                sum += simulation.computeNeck().getControlX();
+            }
+        }
+        simulation.up();
+        while (simulation.isAnimating()) {
+            simulation.step(16f);
+            sum += simulation.getBubbleX();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,83 @@
+package com.boco.dragbubbleview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 拖拽一帧的黏质小球和贝塞尔曲线：路径 vs 三角形
+ * <p>
+ * path 只包含生成路径命令的开销，设备上还要加上每帧重新细分路径的开销；
+ * mesh 包含全部细分的开销，设备上只剩一次 drawVertices。
+ * Setup 中输出不同半径下三角形的顶点数。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NeckGeometryBenchmark {
+
+    private static final float ANCHOR = 200f;
+
+    /**
+     * 气泡半径(px)，12dp 在 1x 到 4x 屏幕上
+     */
+    @Param({"12", "24", "48"})
+    public float radius;
+
+    private BubbleRenderer mPathRenderer;
+    private BubbleRenderer mMeshRenderer;
+    private BlackholeBubbleCanvas mCanvas;
+    private BubbleSimulation mSimulation;
+    private int mFrame;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        mPathRenderer = new BubbleRenderer();
+        mPathRenderer.setLabel("9", BubbleDragRules.SHAPE_CIRCLE, 0, 0);
+        mMeshRenderer = new BubbleRenderer();
+        mMeshRenderer.setLabel("9", BubbleDragRules.SHAPE_CIRCLE, 0, 0);
+        mMeshRenderer.setMeshEnabled(true);
+        mCanvas = new BlackholeBubbleCanvas(blackhole);
+        mSimulation = new BubbleSimulation(radius);
+        mSimulation.reset(ANCHOR, ANCHOR);
+        mSimulation.down(ANCHOR, ANCHOR);
+
+        BubbleMesh mesh = new BubbleMesh();
+        int max = 0;
+        for (int i = 0; i < 64; i++) {
+            moveTo(i);
+            mesh.build(mSimulation.getCircleX(), mSimulation.getCircleY(),
+                    mSimulation.getCircleRadius(), mSimulation.computeNeck());
+            max = Math.max(max, mesh.getVertexCount());
+        }
+        System.out.println("radius=" + radius + " circle segments="
+                + BubbleMesh.circleSegments(radius, BubbleMesh.DEFAULT_TOLERANCE)
+                + " max vertices=" + max);
+    }
+
+    private void moveTo(int frame) {
+        //在黏连范围内来回拖动
+        float offset = radius + (frame & 63) * radius / 16;
+        mSimulation.move(ANCHOR + offset, ANCHOR + offset / 2);
+    }
+
+    @Benchmark
+    public void path() {
+        moveTo(mFrame++);
+        mPathRenderer.draw(mCanvas, mSimulation);
+    }
+
+    @Benchmark
+    public void mesh() {
+        moveTo(mFrame++);
+        mMeshRenderer.draw(mCanvas, mSimulation);
+    }
+}
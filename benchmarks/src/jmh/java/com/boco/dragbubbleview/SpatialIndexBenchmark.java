@@ -0,0 +1,94 @@
+package com.boco.dragbubbleview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按下时查找气泡：网格索引 vs 线性查找
+ * <p>
+ * 气泡均匀分布在 1080x1920 的区域内，拾取半径取 12dp 气泡在 xxhdpi 下的值。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SpatialIndexBenchmark {
+
+    private static final float WIDTH = 1080;
+    private static final float HEIGHT = 1920;
+    private static final float SLOP = 108;
+    private static final int QUERIES = 1024;
+
+    @Param({"10", "100", "1000"})
+    public int bubbles;
+
+    private BubbleSpatialIndex mIndex;
+    private float[] mX;
+    private float[] mY;
+    private float[] mSlop;
+    private float[] mQueryX;
+    private float[] mQueryY;
+    private int mQuery;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        mIndex = new BubbleSpatialIndex(2 * SLOP);
+        mIndex.setBounds(WIDTH, HEIGHT);
+        mX = new float[bubbles];
+        mY = new float[bubbles];
+        mSlop = new float[bubbles];
+        for (int id = 0; id < bubbles; id++) {
+            mX[id] = random.nextFloat() * WIDTH;
+            mY[id] = random.nextFloat() * HEIGHT;
+            mSlop[id] = SLOP;
+            mIndex.put(id, mX[id], mY[id], SLOP);
+        }
+        mQueryX = new float[QUERIES];
+        mQueryY = new float[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            mQueryX[i] = random.nextFloat() * WIDTH;
+            mQueryY[i] = random.nextFloat() * HEIGHT;
+        }
+    }
+
+    @Benchmark
+    public int gridQuery() {
+        int i = mQuery++ & (QUERIES - 1);
+        return mIndex.query(mQueryX[i], mQueryY[i]);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        int i = mQuery++ & (QUERIES - 1);
+        float x = mQueryX[i];
+        float y = mQueryY[i];
+        int found = -1;
+        float minDistance = Float.MAX_VALUE;
+        for (int id = 0; id < bubbles; id++) {
+            float distance = (float) Math.hypot(x - mX[id], y - mY[id]);
+            if (distance < mSlop[id] && distance < minDistance) {
+                minDistance = distance;
+                found = id;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 拖拽时每帧移动一个气泡
+     */
+    @Benchmark
+    public void gridMove() {
+        int i = mQuery++ & (QUERIES - 1);
+        mIndex.put(i % bubbles, mQueryX[i], mQueryY[i], SLOP);
+    }
+}
@@ -0,0 +1,68 @@
+package com.boco.dragbubbleview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 复原颤动曲线：查找表 vs 解析式
+ * <p>
+ * 每次调用计算一整次复原(60帧)的插值，查找表的最大误差在 Setup 中输出。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SpringInterpolatorBenchmark {
+
+    private static final int FRAMES = 60;
+
+    @Param({"64", "256", "1024"})
+    public int samples;
+
+    private BubbleInterpolators.SpringTable mTable;
+    private float[] mInputs;
+
+    @Setup
+    public void setUp() {
+        mTable = BubbleInterpolators.spring(BubbleInterpolators.RESTORE_DECAY,
+                BubbleInterpolators.RESTORE_PERIOD, samples);
+        mInputs = new float[FRAMES + 1];
+        for (int i = 0; i <= FRAMES; i++) {
+            mInputs[i] = (float) i / FRAMES;
+        }
+        float maxError = 0;
+        for (int i = 0; i <= 100000; i++) {
+            float input = i / 100000f;
+            float expected = BubbleInterpolators.dampedSpring(input,
+                    BubbleInterpolators.RESTORE_DECAY, BubbleInterpolators.RESTORE_PERIOD);
+            maxError = Math.max(maxError, Math.abs(mTable.getInterpolation(input) - expected));
+        }
+        System.out.println("samples=" + samples + " max error=" + maxError);
+    }
+
+    @Benchmark
+    public float table() {
+        float sum = 0;
+        for (float input : mInputs) {
+            sum += mTable.getInterpolation(input);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public float closedForm() {
+        float sum = 0;
+        for (float input : mInputs) {
+            sum += BubbleInterpolators.dampedSpring(input, BubbleInterpolators.RESTORE_DECAY,
+                    BubbleInterpolators.RESTORE_PERIOD);
+        }
+        return sum;
+    }
+}